@@ -9,6 +9,7 @@ plugins {
     // Apply the application plugin to add support for building a CLI application in Java.
     application
     alias(libs.plugins.spotbugs)
+    alias(libs.plugins.jmh)
     checkstyle
 }
 
@@ -69,6 +70,29 @@ tasks.register<JavaExec>("runPercolationStats") {
     args("10", "20") // Example: 20 trials on 10x10 grid
 }
 
+// JMH benchmarks live in src/jmh/java and run with ./gradlew jmh
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    // Narrow a run with e.g. -PjmhIncludes=Percolation
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+// Runs the benchmarks and keeps a copy of the JSON results named after the
+// current commit, so results from two commits can be diffed side by side
+tasks.register<Copy>("jmhJson") {
+    group = "benchmark"
+    description = "Run JMH benchmarks and save JSON results per commit"
+    dependsOn("jmh")
+    val commit = providers.exec {
+        commandLine("git", "rev-parse", "--short", "HEAD")
+    }.standardOutput.asText.map { it.trim() }
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(layout.buildDirectory.dir("results/jmh"))
+    rename { "results-${commit.get()}.json" }
+}
+
 tasks.named<Test>("test") {
     // Use JUnit Platform for unit tests.
     useJUnitPlatform()
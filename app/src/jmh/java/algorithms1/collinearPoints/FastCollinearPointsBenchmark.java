@@ -0,0 +1,60 @@
+package algorithms1.collinearPoints;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastCollinearPointsBenchmark {
+    private static final int COORDINATE_RANGE = 32768;
+    private static final int LINE_LENGTH = 5;
+
+    @Param({"100", "400", "1600"})
+    private int n;
+
+    private Point[] points;
+
+    @Setup
+    public void setup() {
+        // Mostly random points, with a tenth of them laid out on short
+        // horizontal lines so there are segments to find
+        SplittableRandom random = new SplittableRandom(42);
+        Set<Long> seen = new HashSet<>();
+        points = new Point[n];
+        int i = 0;
+        while (i < n) {
+            int x = random.nextInt(COORDINATE_RANGE);
+            int y = random.nextInt(COORDINATE_RANGE);
+            int length = i < n / 10 ? Math.min(LINE_LENGTH, n / 10 - i) : 1;
+            for (int k = 0; k < length && i < n; k++) {
+                int px = (x + k) % COORDINATE_RANGE;
+                if (seen.add(((long) px << 32) | y)) {
+                    points[i++] = new Point(px, y);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int findSegments() {
+        return new FastCollinearPoints(points.clone()).numberOfSegments();
+    }
+}
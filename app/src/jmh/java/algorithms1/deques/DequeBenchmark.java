@@ -0,0 +1,79 @@
+package algorithms1.deques;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DequeBenchmark {
+    private static final Integer ITEM = 42;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Benchmark
+    public int dequeAddLastRemoveFirst() {
+        Deque<Integer> deque = new Deque<>();
+        for (int i = 0; i < size; i++) {
+            deque.addLast(ITEM);
+        }
+        int sum = 0;
+        while (!deque.isEmpty()) {
+            sum += deque.removeFirst();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int dequeAddFirstRemoveLast() {
+        Deque<Integer> deque = new Deque<>();
+        for (int i = 0; i < size; i++) {
+            deque.addFirst(ITEM);
+        }
+        int sum = 0;
+        while (!deque.isEmpty()) {
+            sum += deque.removeLast();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int randomizedQueueEnqueueDequeue() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<>();
+        for (int i = 0; i < size; i++) {
+            queue.enqueue(ITEM);
+        }
+        int sum = 0;
+        while (!queue.isEmpty()) {
+            sum += queue.dequeue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int randomizedQueueIterate() {
+        RandomizedQueue<Integer> queue = new RandomizedQueue<>();
+        for (int i = 0; i < size; i++) {
+            queue.enqueue(ITEM);
+        }
+        int sum = 0;
+        for (int item : queue) {
+            sum += item;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,72 @@
+package algorithms1.eightPuzzle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    // "dimension:scramble" pairs, standing in for the course's puzzle files of
+    // increasing difficulty; each board is a fixed random walk from the goal
+    @Param({"3:20", "3:40", "4:30"})
+    private String puzzle;
+
+    private Board initial;
+    private Board unsolvable;
+
+    @Setup
+    public void setup() {
+        String[] parts = puzzle.split(":");
+        initial = scramble(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), 42);
+        unsolvable = scramble(3, 20, 7).twin();
+    }
+
+    static Board scramble(int dim, int moves, long seed) {
+        int[][] tiles = new int[dim][dim];
+        for (int i = 0; i < dim * dim - 1; i++) {
+            tiles[i / dim][i % dim] = i + 1;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        Board board = new Board(tiles);
+        Board previous = null;
+        for (int i = 0; i < moves; i++) {
+            List<Board> options = new ArrayList<>();
+            for (Board neighbor : board.neighbors()) {
+                if (!neighbor.equals(previous)) {
+                    options.add(neighbor);
+                }
+            }
+            previous = board;
+            board = options.get(random.nextInt(options.size()));
+        }
+        return board;
+    }
+
+    @Benchmark
+    public int solve() {
+        return new Solver(initial).moves();
+    }
+
+    @Benchmark
+    public boolean detectUnsolvable() {
+        return new Solver(unsolvable).isSolvable();
+    }
+}
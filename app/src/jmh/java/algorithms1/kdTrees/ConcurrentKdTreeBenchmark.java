@@ -0,0 +1,96 @@
+package algorithms1.kdTrees;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import edu.princeton.cs.algs4.Point2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Three readers running nearest() against one inserter, lock-free versus a
+// KdTree behind a read-write lock
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentKdTreeBenchmark {
+    private static final int N = 100_000;
+
+    private ConcurrentKdTree concurrent;
+    private KdTree locked;
+    private ReentrantReadWriteLock lock;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        Point2D[] points = new Point2D[N];
+        for (int i = 0; i < N; i++) {
+            points[i] = new Point2D(random.nextDouble(), random.nextDouble());
+        }
+        concurrent = new ConcurrentKdTree();
+        for (Point2D p : points) {
+            concurrent.insert(p);
+        }
+        locked = KdTree.build(points);
+        lock = new ReentrantReadWriteLock();
+    }
+
+    private static Point2D randomPoint() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new Point2D(random.nextDouble(), random.nextDouble());
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(3)
+    public Point2D concurrentNearest() {
+        return concurrent.nearest(randomPoint());
+    }
+
+    @Benchmark
+    @Group("concurrent")
+    @GroupThreads(1)
+    public void concurrentInsert() {
+        concurrent.insert(randomPoint());
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public Point2D lockedNearest() {
+        Point2D p = randomPoint();
+        lock.readLock().lock();
+        try {
+            return locked.nearest(p);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedInsert() {
+        Point2D p = randomPoint();
+        lock.writeLock().lock();
+        try {
+            locked.insert(p);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package algorithms1.kdTrees;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import edu.princeton.cs.algs4.Point2D;
+import edu.princeton.cs.algs4.RectHV;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KdTreeBenchmark {
+    private static final int QUERIES = 1024;
+    private static final double RANGE_SIDE = 0.01;
+    private static final int K = 16;
+
+    @Param({"1000", "100000"})
+    private int n;
+
+    private Point2D[] points;
+    private Point2D[] queries;
+    private RectHV[] rects;
+    private KdTree tree;
+    private FrozenKdTree frozen;
+    private PointSET set;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        points = new Point2D[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = new Point2D(random.nextDouble(), random.nextDouble());
+        }
+        queries = new Point2D[QUERIES];
+        rects = new RectHV[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            double x = random.nextDouble(1 - RANGE_SIDE);
+            double y = random.nextDouble(1 - RANGE_SIDE);
+            queries[i] = new Point2D(x, y);
+            rects[i] = new RectHV(x, y, x + RANGE_SIDE, y + RANGE_SIDE);
+        }
+        tree = new KdTree();
+        set = new PointSET();
+        for (Point2D p : points) {
+            tree.insert(p);
+            set.insert(p);
+        }
+        frozen = tree.freeze();
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int kdTreeInsert() {
+        KdTree t = new KdTree();
+        for (Point2D p : points) {
+            t.insert(p);
+        }
+        return t.size();
+    }
+
+    @Benchmark
+    public int kdTreeBuild() {
+        return KdTree.build(points).size();
+    }
+
+    @Benchmark
+    public int pointSetInsert() {
+        PointSET s = new PointSET();
+        for (Point2D p : points) {
+            s.insert(p);
+        }
+        return s.size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Point2D kdTreeNearest() {
+        return tree.nearest(queries[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Iterable<Point2D> kdTreeNearestK() {
+        return tree.nearest(queries[nextQuery()], K);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Iterable<Point2D> kdTreeWithinRadius() {
+        return tree.withinRadius(queries[nextQuery()], RANGE_SIDE / 2);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Point2D frozenNearest() {
+        return frozen.nearest(queries[nextQuery()]);
+    }
+
+    // All QUERIES queries per call, one at a time and as one batch
+    @Benchmark
+    public int frozenNearestEach() {
+        int found = 0;
+        for (Point2D q : queries) {
+            if (frozen.nearest(q) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Point2D[] frozenNearestAll() {
+        return frozen.nearestAll(queries);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Point2D pointSetNearest() {
+        return set.nearest(queries[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Iterable<Point2D> kdTreeRange() {
+        return tree.range(rects[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Iterable<Point2D> frozenRange() {
+        return frozen.range(rects[nextQuery()]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Iterable<Point2D> pointSetRange() {
+        return set.range(rects[nextQuery()]);
+    }
+}
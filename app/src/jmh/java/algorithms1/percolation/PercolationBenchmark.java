@@ -0,0 +1,86 @@
+package algorithms1.percolation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PercolationBenchmark {
+    @Param({"64", "512"})
+    private int n;
+
+    private int[] rows;
+    private int[] cols;
+    private Percolation halfOpen;
+
+    @Setup
+    public void setup() {
+        // A fixed random permutation of all sites, replayed by every invocation
+        SplittableRandom random = new SplittableRandom(42);
+        int[] sites = new int[n * n];
+        for (int i = 0; i < sites.length; i++) {
+            sites[i] = i;
+        }
+        for (int i = sites.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = sites[i];
+            sites[i] = sites[j];
+            sites[j] = tmp;
+        }
+        rows = new int[sites.length];
+        cols = new int[sites.length];
+        for (int i = 0; i < sites.length; i++) {
+            rows[i] = sites[i] / n + 1;
+            cols[i] = sites[i] % n + 1;
+        }
+
+        halfOpen = new Percolation(n);
+        for (int i = 0; i < sites.length / 2; i++) {
+            halfOpen.open(rows[i], cols[i]);
+        }
+    }
+
+    @Benchmark
+    public int openUntilPercolates() {
+        Percolation perc = new Percolation(n);
+        for (int i = 0; !perc.percolates(); i++) {
+            perc.open(rows[i], cols[i]);
+        }
+        return perc.numberOfOpenSites();
+    }
+
+    @Benchmark
+    public int openAllSites() {
+        Percolation perc = new Percolation(n);
+        perc.openAll(rows, cols);
+        return perc.numberOfOpenSites();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean percolates() {
+        return halfOpen.percolates();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean isFull() {
+        return halfOpen.isFull(n, n / 2 + 1);
+    }
+}
@@ -0,0 +1,38 @@
+package algorithms1.percolation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PercolationStatsBenchmark {
+    private static final int N = 128;
+    private static final int TRIALS = 100;
+    private static final long SEED = 42;
+
+    @Param({"REJECTION", "SHUFFLE"})
+    private PercolationStats.Sampling sampling;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    @Benchmark
+    public double endToEnd() {
+        PercolationStats stats = new PercolationStats(N, TRIALS, SEED, threads, sampling);
+        return stats.confidenceHi();
+    }
+}
@@ -1,12 +1,23 @@
 package algorithms1.eightPuzzle; // Remove this line before submission
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Board {
-    private final int[][] board;
+    // Boards up to 4 x 4 are packed into a single long, 4 bits per tile in
+    // row-major order; larger boards use one char per tile
+    private static final int MAX_PACKED_DIM = 4;
+    private static final int MAX_DIM = 256;
+
     private final int dim;
-    
+    private final long packed;   // dim <= MAX_PACKED_DIM
+    private final char[] tiles;  // dim > MAX_PACKED_DIM, null otherwise
+    private final int blank;     // row-major position of the empty tile
+    private final int hamming;
+    private final int manhattan;
+    private final long key;      // see key()
+
     /**
      * Create a board from an n-by-n array of tiles,
      * where tiles[row][col] = tile at (row, col)
@@ -15,21 +26,164 @@ public class Board {
         if (tiles == null) {
             throw new IllegalArgumentException("Tiles cannot be null");
         }
-        
+
         this.dim = tiles.length;
         if (this.dim < 2) {
             throw new IllegalArgumentException("Board can't be smaller than 2 x 2");
         }
-        
-        // Deep copy the tiles
-        this.board = new int[this.dim][this.dim];
+        if (this.dim > MAX_DIM) {
+            throw new IllegalArgumentException("Board can't be larger than " + MAX_DIM + " x " + MAX_DIM);
+        }
+
+        int size = this.dim * this.dim;
+        long bits = 0;
+        char[] copy = this.dim > MAX_PACKED_DIM ? new char[size] : null;
+        int blankPos = -1;
         for (int i = 0; i < this.dim; i++) {
             for (int j = 0; j < this.dim; j++) {
-                this.board[i][j] = tiles[i][j];
+                int val = tiles[i][j];
+                if (val < 0 || val >= size) {
+                    throw new IllegalArgumentException("Tiles must be between 0 and n^2 - 1");
+                }
+                int pos = i * this.dim + j;
+                if (val == 0) {
+                    blankPos = pos;
+                }
+                if (copy != null) {
+                    copy[pos] = (char) val;
+                } else {
+                    bits |= (long) val << (pos << 2);
+                }
+            }
+        }
+        if (blankPos < 0) {
+            throw new IllegalArgumentException("Board must contain the empty tile 0");
+        }
+
+        this.packed = bits;
+        this.tiles = copy;
+        this.blank = blankPos;
+
+        int ham = 0;
+        int man = 0;
+        long zobrist = 0;
+        for (int pos = 0; pos < size; pos++) {
+            int val = tileAt(pos);
+            ham += hammingOf(val, pos);
+            man += manhattanOf(val, pos, this.dim);
+            zobrist ^= zobristOf(val, pos);
+        }
+        this.hamming = ham;
+        this.manhattan = man;
+        this.key = copy == null ? bits : zobrist;
+    }
+
+    // Builds a board directly from its packed form and known distances
+    private Board(int dim, long packed, char[] tiles, int blank, int hamming, int manhattan, long key) {
+        this.dim = dim;
+        this.packed = packed;
+        this.tiles = tiles;
+        this.blank = blank;
+        this.hamming = hamming;
+        this.manhattan = manhattan;
+        this.key = key;
+    }
+
+    // Hamming contribution of tile val at position pos
+    private static int hammingOf(int val, int pos) {
+        return val != 0 && val != pos + 1 ? 1 : 0;
+    }
+
+    // Manhattan contribution of tile val at position pos
+    private static int manhattanOf(int val, int pos, int dim) {
+        if (val == 0) {
+            return 0;
+        }
+        int goal = val - 1;
+        return Math.abs(pos / dim - goal / dim) + Math.abs(pos % dim - goal % dim);
+    }
+
+    // Zobrist value of tile val at position pos. The random table is replaced
+    // by a SplitMix64 finalizer over (val, pos), so large boards need no
+    // n^2-by-n^2 table; the empty tile contributes nothing.
+    private long zobristOf(int val, int pos) {
+        if (val == 0) {
+            return 0;
+        }
+        long z = ((long) val * this.dim * this.dim + pos) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Compact key for closed sets: the packed tiles themselves for boards up
+     * to 4 x 4, which is exact, and an incrementally maintained 64-bit
+     * Zobrist hash for larger boards.
+     */
+    long key() {
+        return this.key;
+    }
+
+    // Whether key() of an n-by-n board holds its packed tiles, so the board
+    // can be rebuilt from the key alone
+    static boolean hasExactKey(int n) {
+        return n <= MAX_PACKED_DIM;
+    }
+
+    // The n-by-n board whose key() is key; hasExactKey(n) must hold
+    static Board fromKey(int n, long key) {
+        int blank = -1;
+        int ham = 0;
+        int man = 0;
+        for (int pos = 0; pos < n * n; pos++) {
+            int val = (int) (key >>> (pos << 2)) & 0xF;
+            if (val == 0) {
+                blank = pos;
             }
+            ham += hammingOf(val, pos);
+            man += manhattanOf(val, pos, n);
         }
+        return new Board(n, key, null, blank, ham, man, key);
     }
-    
+
+    // Tile at row-major position pos
+    int tileAt(int pos) {
+        if (this.tiles != null) {
+            return this.tiles[pos];
+        }
+        return (int) (this.packed >>> (pos << 2)) & 0xF;
+    }
+
+    // Board with the tiles at positions a and b exchanged. Only the two
+    // moved tiles change their distances, so those are updated in O(1).
+    private Board swap(int a, int b) {
+        int tileA = tileAt(a);
+        int tileB = tileAt(b);
+        int newBlank = this.blank == a ? b : this.blank == b ? a : this.blank;
+        int ham = this.hamming
+                - hammingOf(tileA, a) - hammingOf(tileB, b)
+                + hammingOf(tileA, b) + hammingOf(tileB, a);
+        int man = this.manhattan
+                - manhattanOf(tileA, a, this.dim) - manhattanOf(tileB, b, this.dim)
+                + manhattanOf(tileA, b, this.dim) + manhattanOf(tileB, a, this.dim);
+
+        if (this.tiles != null) {
+            char[] copy = this.tiles.clone();
+            copy[a] = (char) tileB;
+            copy[b] = (char) tileA;
+            long zobrist = this.key
+                    ^ zobristOf(tileA, a) ^ zobristOf(tileB, b)
+                    ^ zobristOf(tileA, b) ^ zobristOf(tileB, a);
+            return new Board(this.dim, 0, copy, newBlank, ham, man, zobrist);
+        }
+
+        // XOR out both tiles and XOR them back in at the other position
+        long diff = (long) (tileA ^ tileB);
+        long bits = this.packed ^ (diff << (a << 2)) ^ (diff << (b << 2));
+        return new Board(this.dim, bits, null, newBlank, ham, man, bits);
+    }
+
     /**
      * String representation of this board
      */
@@ -37,10 +191,10 @@ public class Board {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append(this.dim).append("\n");
-        
+
         for (int i = 0; i < this.dim; i++) {
             for (int j = 0; j < this.dim; j++) {
-                sb.append(this.board[i][j]);
+                sb.append(tileAt(i * this.dim + j));
                 if (j < this.dim - 1) {
                     sb.append(" ");
                 }
@@ -49,82 +203,40 @@ public class Board {
                 sb.append("\n");
             }
         }
-        
+
         return sb.toString();
     }
-    
+
     /**
      * Board dimension n
      */
     public int dimension() {
         return this.dim;
     }
-    
-    
+
+
     /**
      * Number of tiles out of place
      */
     public int hamming() {
-        int dist = 0;
-        int pos = 1;
-        
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                int val = this.board[i][j];
-                if (val != 0 && val != pos) {
-                    dist++;
-                }
-                pos++;
-            }
-        }
-        
-        return dist;
+        return this.hamming;
     }
-    
+
     /**
      * Sum of Manhattan distances between tiles and goal
      */
     public int manhattan() {
-        int dist = 0;
-        
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                int val = this.board[i][j];
-                if (val == 0) continue;
-                
-                int actualRow = (val - 1) / this.dim;
-                int actualCol = (val - 1) % this.dim;
-                
-                dist += Math.abs(i - actualRow) + Math.abs(j - actualCol);
-            }
-        }
-        
-        return dist;
+        return this.manhattan;
     }
-    
+
     /**
      * Is this board the goal board?
      */
     public boolean isGoal() {
-        int expectedVal = 1;
-        
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                int val = this.board[i][j];
-                
-                // The last position should be 0 (empty space)
-                if (i == this.dim - 1 && j == this.dim - 1) {
-                    if (val != 0) return false;
-                } else {
-                    if (val != expectedVal) return false;
-                    expectedVal++;
-                }
-            }
-        }
-        
-        return true;
+        // With every tile in place the empty tile can only be in the last cell
+        return this.hamming == 0;
     }
-    
+
     /**
      * Does this board equal other?
      */
@@ -132,105 +244,120 @@ public class Board {
     public boolean equals(Object other) {
         if (this == other) return true;
         if (other == null || getClass() != other.getClass()) return false;
-        
+
         Board otherBoard = (Board) other;
-        
-        if (this.dim != otherBoard.dim) return false;
-        
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                if (this.board[i][j] != otherBoard.board[i][j]) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
+
+        return this.dim == otherBoard.dim
+                && this.blank == otherBoard.blank
+                && this.packed == otherBoard.packed
+                && Arrays.equals(this.tiles, otherBoard.tiles);
     }
-    
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.key);
+    }
+
     /**
      * All neighboring boards
      */
     public Iterable<Board> neighbors() {
-        List<Board> neighborsList = new ArrayList<>();
-        
-        // Find the position of the empty tile (0)
-        int emptyRow = -1, emptyCol = -1;
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                if (this.board[i][j] == 0) {
-                    emptyRow = i;
-                    emptyCol = j;
-                    break;
-                }
-            }
-            if (emptyRow != -1) break;
-        }
-        
-        // Generate neighbors by moving the empty tile in four directions
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; // up, down, left, right
-        
-        for (int[] dir : directions) {
-            int newRow = emptyRow + dir[0];
-            int newCol = emptyCol + dir[1];
-            
-            // Check if the new position is within bounds
-            if (newRow >= 0 && newRow < this.dim && newCol >= 0 && newCol < this.dim) {
-                // Create a new board by swapping the empty tile with the tile at new position
-                int[][] newBoard = new int[this.dim][this.dim];
-                for (int i = 0; i < this.dim; i++) {
-                    for (int j = 0; j < this.dim; j++) {
-                        newBoard[i][j] = this.board[i][j];
-                    }
-                }
-                
-                // Swap the empty tile with the tile at the new position
-                newBoard[emptyRow][emptyCol] = newBoard[newRow][newCol];
-                newBoard[newRow][newCol] = 0;
-                
-                neighborsList.add(new Board(newBoard));
-            }
+        List<Board> neighborsList = new ArrayList<>(4);
+
+        // Slide the empty tile up, down, left and right where possible
+        int row = this.blank / this.dim;
+        int col = this.blank % this.dim;
+        if (row > 0) {
+            neighborsList.add(swap(this.blank, this.blank - this.dim));
+        }
+        if (row < this.dim - 1) {
+            neighborsList.add(swap(this.blank, this.blank + this.dim));
         }
-        
+        if (col > 0) {
+            neighborsList.add(swap(this.blank, this.blank - 1));
+        }
+        if (col < this.dim - 1) {
+            neighborsList.add(swap(this.blank, this.blank + 1));
+        }
+
         return neighborsList;
     }
-    
+
+    // Copies the tiles in row-major order into dst
+    void copyTiles(int[] dst) {
+        int size = this.dim * this.dim;
+        for (int pos = 0; pos < size; pos++) {
+            dst[pos] = tileAt(pos);
+        }
+    }
+
+    // Row-major position of the empty tile
+    int blankPosition() {
+        return this.blank;
+    }
+
+    // Board reached by sliding the tile at pos, which must be next to the
+    // empty tile, into the empty cell
+    Board slide(int pos) {
+        return swap(this.blank, pos);
+    }
+
     /**
-     * A board that is obtained by exchanging any pair of tiles
+     * Can this board reach the goal? Decided by the parity of the number of
+     * inversions among the tiles in row-major order (ignoring the empty tile):
+     * for odd n it must be even, for even n adding the empty tile's row
+     * (counted from 0 at the top) must make it odd.
      */
-    public Board twin() {
-        // Create a copy of the board
-        int[][] twinBoard = new int[this.dim][this.dim];
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                twinBoard[i][j] = this.board[i][j];
+    boolean isSolvable() {
+        int size = this.dim * this.dim;
+        int[] order = new int[size - 1];
+        int k = 0;
+        for (int pos = 0; pos < size; pos++) {
+            int val = tileAt(pos);
+            if (val != 0) {
+                order[k++] = val;
             }
         }
-        
-        // Find two non-zero positions to swap
-        int[] pos1 = null, pos2 = null;
-        
-        for (int i = 0; i < this.dim; i++) {
-            for (int j = 0; j < this.dim; j++) {
-                if (twinBoard[i][j] != 0) {
-                    if (pos1 == null) {
-                        pos1 = new int[]{i, j};
-                    } else {
-                        pos2 = new int[]{i, j};
-                        break;
-                    }
-                }
-            }
-            if (pos2 != null) break;
+
+        long inversions = countInversions(order, new int[order.length], 0, order.length);
+        if (this.dim % 2 == 1) {
+            return inversions % 2 == 0;
         }
-        
-        // Swap the two tiles
-        if (pos1 != null && pos2 != null) {
-            int temp = twinBoard[pos1[0]][pos1[1]];
-            twinBoard[pos1[0]][pos1[1]] = twinBoard[pos2[0]][pos2[1]];
-            twinBoard[pos2[0]][pos2[1]] = temp;
+        return (inversions + this.blank / this.dim) % 2 == 1;
+    }
+
+    // Merge sort a[lo, hi) and return the number of inversions it contained
+    private static long countInversions(int[] a, int[] aux, int lo, int hi) {
+        if (hi - lo < 2) {
+            return 0;
+        }
+        int mid = (lo + hi) >>> 1;
+        long count = countInversions(a, aux, lo, mid) + countInversions(a, aux, mid, hi);
+
+        System.arraycopy(a, lo, aux, lo, hi - lo);
+        int i = lo;
+        int j = mid;
+        for (int k = lo; k < hi; k++) {
+            if (i >= mid) {
+                a[k] = aux[j++];
+            } else if (j >= hi || aux[i] <= aux[j]) {
+                a[k] = aux[i++];
+            } else {
+                // aux[j] is smaller than every element still left in the low half
+                count += mid - i;
+                a[k] = aux[j++];
+            }
         }
-        
-        return new Board(twinBoard);
+        return count;
+    }
+
+    /**
+     * A board that is obtained by exchanging any pair of tiles
+     */
+    public Board twin() {
+        // Swap the first two positions that do not hold the empty tile
+        int first = this.blank == 0 ? 1 : 0;
+        int second = this.blank <= 1 ? 2 : 1;
+        return swap(first, second);
     }
 }
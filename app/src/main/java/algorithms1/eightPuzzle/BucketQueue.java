@@ -0,0 +1,87 @@
+package algorithms1.eightPuzzle; // Remove this line before submission
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue for small non-negative integer priorities, with one LIFO
+ * stack per (f, h) pair. Items come out by smallest f, then by smallest h,
+ * which for f = g + h means the deepest node first, then newest first. Push
+ * and pop are O(1) apart from skipping empty buckets.
+ */
+class BucketQueue<Item> {
+    private Object[][][] stacks = new Object[0][][];  // [f][h] -> stack
+    private int[][] counts = new int[0][];            // [f][h] -> stack size
+    private int[] sizes = new int[0];                 // [f] -> items with that f
+    private int size;
+    private int minF;  // no items with smaller f
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void push(Item item, int f, int h) {
+        if (h < 0 || h > f) {
+            throw new IllegalArgumentException("Priority must satisfy 0 <= h <= f");
+        }
+        if (f >= sizes.length) {
+            int length = Math.max(f + 1, 2 * sizes.length);
+            stacks = Arrays.copyOf(stacks, length);
+            counts = Arrays.copyOf(counts, length);
+            sizes = Arrays.copyOf(sizes, length);
+        }
+        if (stacks[f] == null || h >= stacks[f].length) {
+            int length = f + 1;
+            stacks[f] = stacks[f] == null ? new Object[length][] : Arrays.copyOf(stacks[f], length);
+            counts[f] = counts[f] == null ? new int[length] : Arrays.copyOf(counts[f], length);
+        }
+
+        Object[] stack = stacks[f][h];
+        int count = counts[f][h];
+        if (stack == null) {
+            stack = new Object[16];
+            stacks[f][h] = stack;
+        } else if (count == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * count);
+            stacks[f][h] = stack;
+        }
+        stack[count] = item;
+        counts[f][h] = count + 1;
+        sizes[f]++;
+        if (size == 0 || f < minF) {
+            minF = f;
+        }
+        size++;
+    }
+
+    // Smallest f of any item in the queue
+    int minPriority() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Queue underflow");
+        }
+        while (sizes[minF] == 0) {
+            minF++;
+        }
+        return minF;
+    }
+
+    @SuppressWarnings("unchecked")
+    Item pop() {
+        int f = minPriority();
+        int[] count = counts[f];
+        int h = 0;
+        while (count[h] == 0) {
+            h++;
+        }
+        Object[] stack = stacks[f][h];
+        Item item = (Item) stack[--count[h]];
+        stack[count[h]] = null;
+        sizes[f]--;
+        size--;
+        return item;
+    }
+}
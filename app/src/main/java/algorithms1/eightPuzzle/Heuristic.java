@@ -0,0 +1,15 @@
+package algorithms1.eightPuzzle; // Remove this line before submission
+
+/**
+ * Lower bound on the number of moves from a board to the goal. Solver only
+ * needs heuristics to be admissible: IDA* keeps no closed set and both A*
+ * searches reopen boards reached by a shorter path, so all of them stay
+ * optimal with inconsistent heuristics.
+ */
+public interface Heuristic {
+    /**
+     * Estimate for the n-by-n board whose row-major tiles are given, with 0
+     * for the empty tile. Implementations must not modify tiles.
+     */
+    int estimate(int[] tiles, int n);
+}
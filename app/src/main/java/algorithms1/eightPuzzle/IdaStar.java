@@ -0,0 +1,138 @@
+package algorithms1.eightPuzzle; // Remove this line before submission
+
+/**
+ * Iterative-deepening A* over a single mutable copy of the tiles. Moves are
+ * made and unmade in place and the Manhattan distance is updated per move,
+ * so memory is proportional to the solution depth rather than to the number
+ * of boards seen. An optional heuristic is combined with the Manhattan
+ * distance by taking the larger of the two. The board must be solvable,
+ * otherwise the search does not terminate.
+ */
+class IdaStar {
+    private static final int FOUND = -1;
+
+    private final int dim;
+    private final Heuristic heuristic;  // null for plain Manhattan
+    private final int[] tiles;
+    private final int[] rowOf;  // row of each position
+    private final int[] colOf;  // column of each position
+    private int blank;
+    private int manhattan;
+    private int[] path;         // position the empty tile moved to at each depth
+    private int solutionLength;
+    private long expanded;      // nodes whose successors were generated
+
+    IdaStar(Board initial, Heuristic heuristic) {
+        this.dim = initial.dimension();
+        this.heuristic = heuristic;
+        int size = dim * dim;
+        this.tiles = new int[size];
+        this.rowOf = new int[size];
+        this.colOf = new int[size];
+        for (int pos = 0; pos < size; pos++) {
+            tiles[pos] = initial.tileAt(pos);
+            rowOf[pos] = pos / dim;
+            colOf[pos] = pos % dim;
+        }
+        this.blank = initial.blankPosition();
+        this.manhattan = initial.manhattan();
+        this.path = new int[Math.max(1, manhattan)];
+    }
+
+    private int estimate() {
+        if (heuristic == null) {
+            return manhattan;
+        }
+        return Math.max(manhattan, heuristic.estimate(tiles, dim));
+    }
+
+    /**
+     * Returns the positions the empty tile moves to, one per move of an
+     * optimal solution.
+     */
+    int[] solve() {
+        int bound = estimate();
+        while (true) {
+            int next = search(0, bound, -1);
+            if (next == FOUND) {
+                int[] result = new int[solutionLength];
+                System.arraycopy(path, 0, result, 0, solutionLength);
+                return result;
+            }
+            bound = next;
+        }
+    }
+
+    // Nodes expanded over all iterations of solve()
+    long expanded() {
+        return expanded;
+    }
+
+    // Depth-first search below the f-bound; returns FOUND or the smallest
+    // f-value that exceeded the bound
+    private int search(int g, int bound, int previous) {
+        int f = g + estimate();
+        if (f > bound) {
+            return f;
+        }
+        if (manhattan == 0) {
+            solutionLength = g;
+            return FOUND;
+        }
+        if (g >= path.length) {
+            int[] grown = new int[Math.max(bound, 2 * path.length)];
+            System.arraycopy(path, 0, grown, 0, path.length);
+            path = grown;
+        }
+        expanded++;
+
+        int min = Integer.MAX_VALUE;
+        int row = rowOf[blank];
+        int col = colOf[blank];
+        for (int dir = 0; dir < 4; dir++) {
+            int target;
+            if (dir == 0) {
+                target = row > 0 ? blank - dim : -1;
+            } else if (dir == 1) {
+                target = row < dim - 1 ? blank + dim : -1;
+            } else if (dir == 2) {
+                target = col > 0 ? blank - 1 : -1;
+            } else {
+                target = col < dim - 1 ? blank + 1 : -1;
+            }
+            // Never undo the move that led here
+            if (target < 0 || target == previous) {
+                continue;
+            }
+
+            int from = blank;
+            int tile = tiles[target];
+            int delta = distance(tile, from) - distance(tile, target);
+            tiles[from] = tile;
+            tiles[target] = 0;
+            blank = target;
+            manhattan += delta;
+            path[g] = target;
+
+            int t = search(g + 1, bound, from);
+            if (t == FOUND) {
+                return FOUND;
+            }
+
+            manhattan -= delta;
+            blank = from;
+            tiles[target] = tile;
+            tiles[from] = 0;
+            if (t < min) {
+                min = t;
+            }
+        }
+        return min;
+    }
+
+    // Manhattan distance of tile from its goal position when at pos
+    private int distance(int tile, int pos) {
+        int goal = tile - 1;
+        return Math.abs(rowOf[pos] - rowOf[goal]) + Math.abs(colOf[pos] - colOf[goal]);
+    }
+}
@@ -0,0 +1,69 @@
+package algorithms1.eightPuzzle; // Remove this line before submission
+
+/**
+ * Manhattan distance plus two moves for every tile that has to leave its row
+ * (or column) to let another tile of the same goal row (or column) past it.
+ * The tiles that may stay are a longest increasing run of goal columns (or
+ * rows), so each line contributes 2 * (tiles in goal line - that length).
+ */
+public class LinearConflict implements Heuristic {
+
+    @Override
+    public int estimate(int[] tiles, int n) {
+        int dist = 0;
+        int[] line = new int[n];
+
+        for (int row = 0; row < n; row++) {
+            int count = 0;
+            for (int col = 0; col < n; col++) {
+                int val = tiles[row * n + col];
+                if (val == 0) continue;
+                int goal = val - 1;
+                dist += Math.abs(row - goal / n) + Math.abs(col - goal % n);
+                if (goal / n == row) {
+                    line[count++] = goal % n;
+                }
+            }
+            dist += 2 * (count - longestIncreasing(line, count));
+        }
+
+        for (int col = 0; col < n; col++) {
+            int count = 0;
+            for (int row = 0; row < n; row++) {
+                int val = tiles[row * n + col];
+                if (val != 0 && (val - 1) % n == col) {
+                    line[count++] = (val - 1) / n;
+                }
+            }
+            dist += 2 * (count - longestIncreasing(line, count));
+        }
+
+        return dist;
+    }
+
+    // Length of the longest strictly increasing subsequence of a[0, count)
+    private static int longestIncreasing(int[] a, int count) {
+        if (count < 2) {
+            return count;
+        }
+        int[] tails = new int[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (tails[mid] < a[i]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            tails[lo] = a[i];
+            if (lo == length) {
+                length++;
+            }
+        }
+        return length;
+    }
+}
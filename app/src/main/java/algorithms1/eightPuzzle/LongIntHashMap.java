@@ -0,0 +1,99 @@
+package algorithms1.eightPuzzle; // Remove this line before submission
+
+/**
+ * Map from primitive longs to ints using open addressing with linear
+ * probing, so a table of millions of board keys costs 12 bytes per slot
+ * instead of a boxed key, a boxed value and a hash-map entry per key. It
+ * holds the fewest moves seen per board: A*'s closed set and the sharded
+ * cost table of ParallelAStar. Not thread-safe.
+ */
+class LongIntHashMap {
+    static final int ABSENT = Integer.MAX_VALUE;  // value of a missing key
+    private static final int INITIAL_CAPACITY = 1 << 8;
+
+    private long[] keys;   // 0 marks an empty slot
+    private int[] values;
+    private int zeroValue = ABSENT;
+    private int size;
+
+    LongIntHashMap() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new int[INITIAL_CAPACITY];
+    }
+
+    int size() {
+        return size + (zeroValue != ABSENT ? 1 : 0);
+    }
+
+    // Value for key, ABSENT if there is none
+    int get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        for (int i = (int) mix(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return ABSENT;
+    }
+
+    // Stores value for key unless it holds one at most as large, and
+    // returns true if it stored it; value must be below ABSENT
+    boolean putIfLess(long key, int value) {
+        if (key == 0) {
+            if (value >= zeroValue) {
+                return false;
+            }
+            zeroValue = value;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int i = (int) mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                if (value >= values[i]) {
+                    return false;
+                }
+                values[i] = value;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        // Keep the load factor at or below one half
+        if (2 * size > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = (int) mix(oldKeys[j]) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    // Packed board keys have many zero high bits, so mix before masking.
+    // Slots come from the low bits, so callers that split keys across
+    // several maps can pick the map by the top bits.
+    static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
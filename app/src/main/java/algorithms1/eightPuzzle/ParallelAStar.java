@@ -0,0 +1,257 @@
+package algorithms1.eightPuzzle; // Remove this line before submission
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A* on several threads sharing one bucket-queue open list. Workers take a
+ * small batch of the best nodes under a lock, expand them without holding
+ * it, and push the successors back. The fewest moves seen for each board
+ * live in a sharded table, so a board is reopened when reached by a shorter
+ * path and stale queue entries are dropped. Goals found become an incumbent
+ * bound; the search ends once no worker is busy and no queued node could
+ * beat the incumbent, so the result is optimal for any admissible heuristic.
+ * The board must be solvable, otherwise the search does not terminate.
+ */
+class ParallelAStar {
+    private static final int BATCH = 16;   // nodes taken per lock acquisition
+    private static final int SHARDS = 64;  // lock stripes of the cost table
+
+    private static final int NO_MOVE = -1;
+
+    // Boards up to 4 x 4 are kept only as their key and rebuilt when taken
+    // from the queue; larger ones, whose key is a hash, keep the board. The
+    // path is kept as one move code per node, as in Solver.
+    private static final class SearchNode {
+        private final long key;
+        private final Board board;  // null if rebuilt from key
+        private final int moves;
+        private final int estimate;
+        private final int move;     // code of the move that led here, NO_MOVE at the root
+        private final SearchNode previous;
+
+        private SearchNode(Board board, int moves, int estimate, int move, SearchNode previous) {
+            this.key = board.key();
+            this.board = Board.hasExactKey(board.dimension()) ? null : board;
+            this.moves = moves;
+            this.estimate = estimate;
+            this.move = move;
+            this.previous = previous;
+        }
+    }
+
+    private final Board initial;
+    private final Heuristic heuristic;  // null for plain Manhattan
+    private final int threads;
+    private final LongIntHashMap[] best;  // fewest moves per board, locked per shard
+
+    // Guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final BucketQueue<SearchNode> open = new BucketQueue<>();
+    private int active;           // workers expanding a batch
+    private boolean done;
+    private SearchNode goal;
+    private long expanded;
+    private volatile int incumbent = Integer.MAX_VALUE;  // moves of goal, written under lock
+
+    ParallelAStar(Board initial, Heuristic heuristic, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be greater than 0");
+        }
+        this.initial = initial;
+        this.heuristic = heuristic;
+        this.threads = threads;
+        this.best = new LongIntHashMap[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            best[i] = new LongIntHashMap();
+        }
+    }
+
+    /**
+     * Returns the positions the empty tile moves to, one per move of an
+     * optimal solution.
+     */
+    int[] solve() {
+        int h = estimate(initial, new int[initial.dimension() * initial.dimension()]);
+        improve(initial.key(), 0);
+        open.push(new SearchNode(initial, 0, h, NO_MOVE, null), h, h);
+
+        if (threads == 1) {
+            work();
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<ForkJoinTask<?>> workers = new ArrayList<>(threads);
+                for (int i = 0; i < threads; i++) {
+                    workers.add(pool.submit(this::work));
+                }
+                for (ForkJoinTask<?> worker : workers) {
+                    worker.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        int[] path = new int[goal.moves];
+        for (SearchNode node = goal; node.previous != null; node = node.previous) {
+            path[node.moves - 1] = node.move;
+        }
+        // Replay the move codes from the initial empty tile
+        int blank = initial.blankPosition();
+        for (int i = 0; i < path.length; i++) {
+            blank = Solver.target(blank, path[i], initial.dimension());
+            path[i] = blank;
+        }
+        return path;
+    }
+
+    // Nodes expanded by all workers; valid once solve() has returned
+    long expanded() {
+        return expanded;
+    }
+
+    private int estimate(Board board, int[] tiles) {
+        if (heuristic == null) {
+            return board.manhattan();
+        }
+        board.copyTiles(tiles);
+        return Math.max(board.manhattan(), heuristic.estimate(tiles, board.dimension()));
+    }
+
+    private LongIntHashMap shard(long key) {
+        return best[(int) (LongIntHashMap.mix(key) >>> 58) & (SHARDS - 1)];
+    }
+
+    private int bestMoves(long key) {
+        LongIntHashMap shard = shard(key);
+        synchronized (shard) {
+            return shard.get(key);
+        }
+    }
+
+    // Records moves for key and returns true if it beats the ones known
+    private boolean improve(long key, int moves) {
+        LongIntHashMap shard = shard(key);
+        synchronized (shard) {
+            return shard.putIfLess(key, moves);
+        }
+    }
+
+    private void work() {
+        int dim = initial.dimension();
+        int[] tiles = new int[initial.dimension() * initial.dimension()];
+        List<SearchNode> batch = new ArrayList<>(BATCH);
+        List<SearchNode> successors = new ArrayList<>(4 * BATCH);
+        long count = 0;
+        try {
+            while (true) {
+                batch.clear();
+                lock.lock();
+                try {
+                    // Wait until some queued node may beat the incumbent, or
+                    // until nobody is busy and nothing can, which ends the search
+                    while (!done && (open.isEmpty() || open.minPriority() >= incumbent)) {
+                        if (active == 0) {
+                            done = true;
+                            changed.signalAll();
+                        } else {
+                            changed.awaitUninterruptibly();
+                        }
+                    }
+                    if (done) {
+                        return;
+                    }
+                    while (batch.size() < BATCH && !open.isEmpty() && open.minPriority() < incumbent) {
+                        batch.add(open.pop());
+                    }
+                    active++;
+                } finally {
+                    lock.unlock();
+                }
+
+                successors.clear();
+                SearchNode found = null;
+                for (SearchNode node : batch) {
+                    if (node.moves > bestMoves(node.key)) {
+                        continue;  // reached by a shorter path since it was queued
+                    }
+                    Board board = node.board != null ? node.board : Board.fromKey(dim, node.key);
+                    if (board.isGoal()) {
+                        if (found == null || node.moves < found.moves) {
+                            found = node;
+                        }
+                        continue;
+                    }
+                    count++;
+                    expand(node, board, tiles, successors);
+                }
+
+                lock.lock();
+                try {
+                    if (found != null && found.moves < incumbent) {
+                        goal = found;
+                        incumbent = found.moves;
+                    }
+                    for (SearchNode node : successors) {
+                        if (node.moves + node.estimate < incumbent) {
+                            open.push(node, node.moves + node.estimate, node.estimate);
+                        }
+                    }
+                    active--;
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // Release the other workers instead of leaving them waiting
+            lock.lock();
+            try {
+                done = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        } finally {
+            lock.lock();
+            try {
+                expanded += count;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Adds the neighbors of node, whose board is given, that improve on the
+    // best known moves
+    private void expand(SearchNode node, Board board, int[] tiles, List<SearchNode> successors) {
+        int moves = node.moves + 1;
+        int dim = board.dimension();
+        int blank = board.blankPosition();
+        for (int code = 0; code < 4; code++) {
+            // Never undo the move that led here
+            if (node.move != NO_MOVE && code == (node.move ^ 1)) {
+                continue;
+            }
+            int pos = Solver.target(blank, code, dim);
+            if (pos < 0) {
+                continue;
+            }
+            Board neighbor = board.slide(pos);
+            if (!improve(neighbor.key(), moves)) {
+                continue;
+            }
+            int h = estimate(neighbor, tiles);
+            if (moves + h < incumbent) {
+                successors.add(new SearchNode(neighbor, moves, h, code, node));
+            }
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package algorithms1.eightPuzzle; // Remove this line before submission
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Additive disjoint pattern database. The tiles are split into groups and,
+ * for every placement of a group's tiles, the table stores the fewest moves
+ * of that group's tiles needed to bring them home, with the empty cell
+ * tracked and all other tiles ignored. Because each move moves one tile of
+ * one group, the per-group values add up to an admissible estimate.
+ *
+ * That estimate is not consistent: a move of the empty cell alone can lower
+ * a table entry by more than one, which Solver's searches allow for (see
+ * Heuristic).
+ *
+ * Tables can be saved to a compact binary file (one byte per placement)
+ * that is memory-mapped when loaded.
+ */
+public class PatternDatabase implements Heuristic {
+    private static final int MAGIC = 0x50444233;  // "PDB3"
+    private static final byte UNSET = -1;
+
+    // The classic 6-6-3 partition of the 15-puzzle
+    private static final int[][] FIFTEEN_PUZZLE_GROUPS = {
+        {1, 5, 6, 9, 10, 13},
+        {7, 8, 11, 12, 14, 15},
+        {2, 3, 4}
+    };
+
+    private final int dim;
+    private final int[][] groups;
+    private final ByteBuffer[] tables;
+    private final int[] groupOf;  // group index of each tile, -1 for none
+    private final int[] slotOf;   // index of each tile within its group
+    private final ThreadLocal<int[]> scratch;
+
+    private PatternDatabase(int dim, int[][] groups, ByteBuffer[] tables) {
+        this.dim = dim;
+        this.groups = groups;
+        this.tables = tables;
+        int size = dim * dim;
+        this.groupOf = new int[size];
+        this.slotOf = new int[size];
+        Arrays.fill(groupOf, -1);
+        int maxGroup = 0;
+        for (int g = 0; g < groups.length; g++) {
+            for (int s = 0; s < groups[g].length; s++) {
+                groupOf[groups[g][s]] = g;
+                slotOf[groups[g][s]] = s;
+            }
+            maxGroup = Math.max(maxGroup, groups[g].length);
+        }
+        int scratchSize = groups.length * maxGroup;
+        this.scratch = ThreadLocal.withInitial(() -> new int[scratchSize]);
+    }
+
+    /**
+     * Builds the 6-6-3 database for the 4-by-4 board. This takes a while, so
+     * it is meant to be run once (see main) and saved.
+     */
+    public static PatternDatabase buildFifteenPuzzle() {
+        return build(4, FIFTEEN_PUZZLE_GROUPS);
+    }
+
+    /**
+     * Builds a database for n-by-n boards from disjoint groups of tiles. The
+     * groups must be disjoint, and tiles left out of every group simply do
+     * not contribute to the estimate.
+     */
+    public static PatternDatabase build(int n, int[][] groups) {
+        int[][] copy = validate(n, groups);
+        ByteBuffer[] tables = new ByteBuffer[copy.length];
+        for (int g = 0; g < copy.length; g++) {
+            tables[g] = ByteBuffer.wrap(search(n, copy[g]));
+        }
+        return new PatternDatabase(n, copy, tables);
+    }
+
+    private static int[][] validate(int n, int[][] groups) {
+        if (n < 2) {
+            throw new IllegalArgumentException("Board can't be smaller than 2 x 2");
+        }
+        if (groups == null || groups.length == 0) {
+            throw new IllegalArgumentException("Groups cannot be empty");
+        }
+        int size = n * n;
+        boolean[] used = new boolean[size];
+        int[][] copy = new int[groups.length][];
+        for (int g = 0; g < groups.length; g++) {
+            if (groups[g] == null || groups[g].length == 0) {
+                throw new IllegalArgumentException("Groups cannot be empty");
+            }
+            copy[g] = groups[g].clone();
+            for (int tile : copy[g]) {
+                if (tile <= 0 || tile >= size || used[tile]) {
+                    throw new IllegalArgumentException("Groups must hold distinct tiles between 1 and n^2 - 1");
+                }
+                used[tile] = true;
+            }
+            // The search indexes (placement, empty cell) states by int
+            if (entries(size, copy[g].length) * size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Pattern group of " + copy[g].length + " tiles is too large");
+            }
+        }
+        return copy;
+    }
+
+    // Number of placements of k distinct tiles on size cells
+    private static long entries(int size, int k) {
+        long count = 1;
+        for (int i = 0; i < k; i++) {
+            count *= size - i;
+        }
+        return count;
+    }
+
+    // Rank of a placement: digit i is the position of tile i among the cells
+    // not taken by tiles 0..i-1, read in mixed radix size, size - 1, ...
+    private static int rank(int[] positions, int offset, int k, int size) {
+        int rank = 0;
+        for (int i = 0; i < k; i++) {
+            int p = positions[offset + i];
+            int digit = p;
+            for (int j = 0; j < i; j++) {
+                if (positions[offset + j] < p) {
+                    digit--;
+                }
+            }
+            rank = rank * (size - i) + digit;
+        }
+        return rank;
+    }
+
+    private static void unrank(int rank, int k, int size, int[] positions, int[] digits, boolean[] taken) {
+        for (int i = k - 1; i >= 0; i--) {
+            digits[i] = rank % (size - i);
+            rank /= size - i;
+        }
+        Arrays.fill(taken, false);
+        for (int i = 0; i < k; i++) {
+            int skip = digits[i];
+            int p = 0;
+            while (taken[p] || skip > 0) {
+                if (!taken[p]) {
+                    skip--;
+                }
+                p++;
+            }
+            positions[i] = p;
+            taken[p] = true;
+        }
+    }
+
+    /**
+     * Backward search from the goal over (placement, empty cell) states, in
+     * order of cost. Moving the empty cell onto a group tile moves that tile
+     * and costs 1; moving it onto any other cell is free. A placement's
+     * entry is the cheapest cost over all empty-cell positions.
+     *
+     * States are processed level by level with bitsets: a state taken from
+     * the current level floods the region its empty cell can reach for free,
+     * which all shares that cost, and the group tiles bordering the region
+     * give the states of the next level.
+     */
+    private static byte[] search(int n, int[] group) {
+        int size = n * n;
+        int k = group.length;
+        int entries = (int) entries(size, k);
+        byte[] table = new byte[entries];
+        Arrays.fill(table, UNSET);
+
+        BitSet done = new BitSet(entries * size);
+        BitSet current = new BitSet(entries * size);
+        BitSet next = new BitSet(entries * size);
+        int[] positions = new int[k];
+        int[] digits = new int[k];
+        boolean[] taken = new boolean[size];
+        int[] slotAt = new int[size];  // group slot at each cell, -1 if none
+        int[] region = new int[size];
+
+        for (int i = 0; i < k; i++) {
+            positions[i] = group[i] - 1;
+        }
+        current.set(rank(positions, 0, k, size) * size + size - 1);
+
+        for (int level = 0; !current.isEmpty(); level++) {
+            for (int s = current.nextSetBit(0); s >= 0; s = current.nextSetBit(s + 1)) {
+                if (done.get(s)) {
+                    continue;
+                }
+                int placement = s / size;
+                unrank(placement, k, size, positions, digits, taken);
+                Arrays.fill(slotAt, -1);
+                for (int i = 0; i < k; i++) {
+                    slotAt[positions[i]] = i;
+                }
+                if (table[placement] == UNSET) {
+                    table[placement] = (byte) level;
+                }
+
+                // Flood the free region of the empty cell
+                int count = 0;
+                region[count++] = s % size;
+                done.set(s);
+                for (int r = 0; r < count; r++) {
+                    int blank = region[r];
+                    int row = blank / n;
+                    int col = blank % n;
+                    for (int dir = 0; dir < 4; dir++) {
+                        int target = neighbor(blank, row, col, dir, n);
+                        if (target < 0) {
+                            continue;
+                        }
+                        int slot = slotAt[target];
+                        if (slot < 0) {
+                            int state = placement * size + target;
+                            if (!done.get(state)) {
+                                done.set(state);
+                                region[count++] = target;
+                            }
+                        } else {
+                            // The group tile slides into the empty cell
+                            positions[slot] = blank;
+                            int state = rank(positions, 0, k, size) * size + target;
+                            positions[slot] = target;
+                            if (!done.get(state)) {
+                                next.set(state);
+                            }
+                        }
+                    }
+                }
+            }
+            BitSet swap = current;
+            current = next;
+            next = swap;
+            next.clear();
+        }
+        return table;
+    }
+
+    // Cell next to pos in direction dir (up, down, left, right), or -1
+    private static int neighbor(int pos, int row, int col, int dir, int n) {
+        if (dir == 0) {
+            return row > 0 ? pos - n : -1;
+        } else if (dir == 1) {
+            return row < n - 1 ? pos + n : -1;
+        } else if (dir == 2) {
+            return col > 0 ? pos - 1 : -1;
+        }
+        return col < n - 1 ? pos + 1 : -1;
+    }
+
+    /**
+     * Writes the database as a header (magic, n, groups and their tiles)
+     * followed by one byte per placement for each group in turn.
+     */
+    public void save(Path file) {
+        int headerInts = 3;
+        for (int[] group : groups) {
+            headerInts += 1 + group.length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(headerInts * Integer.BYTES);
+        header.putInt(MAGIC).putInt(dim).putInt(groups.length);
+        for (int[] group : groups) {
+            header.putInt(group.length);
+            for (int tile : group) {
+                header.putInt(tile);
+            }
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (ByteBuffer table : tables) {
+                writeFully(channel, table.duplicate().clear());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write pattern database " + file, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Memory-maps a database written by save(). The tables stay in the OS
+     * page cache and are shared by every solver using this instance.
+     */
+    public static PatternDatabase load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a pattern database: " + file);
+            }
+            int n = buffer.getInt();
+            int[][] groups = new int[buffer.getInt()][];
+            for (int g = 0; g < groups.length; g++) {
+                groups[g] = new int[buffer.getInt()];
+                for (int s = 0; s < groups[g].length; s++) {
+                    groups[g][s] = buffer.getInt();
+                }
+            }
+            groups = validate(n, groups);
+
+            ByteBuffer[] tables = new ByteBuffer[groups.length];
+            long offset = buffer.position();
+            for (int g = 0; g < groups.length; g++) {
+                int length = (int) entries(n * n, groups[g].length);
+                if (offset + length > buffer.limit()) {
+                    throw new IllegalArgumentException("Truncated pattern database: " + file);
+                }
+                tables[g] = buffer.slice((int) offset, length);
+                offset += length;
+            }
+            return new PatternDatabase(n, groups, tables);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read pattern database " + file, e);
+        }
+    }
+
+    // Board dimension this database was built for
+    public int dimension() {
+        return dim;
+    }
+
+    @Override
+    public int estimate(int[] tiles, int n) {
+        if (n != dim) {
+            throw new IllegalArgumentException("Pattern database is for " + dim + " x " + dim + " boards");
+        }
+        int[] positions = scratch.get();
+        int stride = positions.length / groups.length;
+        for (int pos = 0; pos < tiles.length; pos++) {
+            int tile = tiles[pos];
+            if (tile != 0 && groupOf[tile] >= 0) {
+                positions[groupOf[tile] * stride + slotOf[tile]] = pos;
+            }
+        }
+
+        int dist = 0;
+        int size = n * n;
+        for (int g = 0; g < groups.length; g++) {
+            dist += tables[g].get(rank(positions, g * stride, groups[g].length, size));
+        }
+        return dist;
+    }
+
+    // Usage: PatternDatabase output-file
+    // Builds the 6-6-3 15-puzzle database and saves it to output-file
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        PatternDatabase pdb = buildFifteenPuzzle();
+        pdb.save(Paths.get(args[0]));
+        StdOut.printf("Built 6-6-3 pattern database in %.1f s\n", (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -1,84 +1,226 @@
 package algorithms1.eightPuzzle; // Remove this line before submission
 
-import edu.princeton.cs.algs4.MinPQ;
-import edu.princeton.cs.algs4.Stack;
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
 
+import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 public class Solver {
+
+    // Search algorithm used to find an optimal solution
+    public enum Strategy {
+        // best-first search with a priority queue and the fewest moves each
+        // board was expanded at; reopens boards reached by shorter paths
+        A_STAR,
+        // iterative deepening on the f-bound, memory proportional to the depth
+        IDA_STAR,
+        // A* on several threads with a shared open list; reopens boards
+        // reached by shorter paths, so it only needs an admissible heuristic
+        PARALLEL_A_STAR
+    }
     
-    private static class Node implements Comparable<Node> {
-        private final int priority;
+    // Moves of the empty tile, indexed by move code; code ^ 1 undoes a move
+    private static final String MOVES = "UDLR";
+    private static final int NO_MOVE = -1;
+
+    // Search node. Boards up to 4 x 4 are kept only as their key and
+    // rebuilt when the node is expanded; larger ones, whose key is a hash,
+    // keep the board until then. The path is kept as one move code per node.
+    private static class Node {
         private final int moves;
-        private final Board board;
+        private final int move;  // code of the move that led here, NO_MOVE at the root
         private final Node previous;
-        
-        public Node(int moves, Board board, Node previous) {
+        private final long key;
+        private Board board;     // null once expanded or if rebuilt from key
+
+        public Node(int moves, Board board, Node previous, int move) {
             this.moves = moves;
-            this.board = board;
+            this.key = board.key();
+            this.board = Board.hasExactKey(board.dimension()) ? null : board;
             this.previous = previous;
-            this.priority = moves + board.manhattan();
-        }
-        
-        @Override
-        public int compareTo(Node other) {
-            return Integer.compare(this.priority, other.priority);
+            this.move = move;
         }
     }
     
     private final boolean solvable;
     private final int minMoves;
-    private final Node solutionNode;
+    private final Board initial;
+    private final String solutionMoves;  // null if unsolvable
+    private final Heuristic heuristic;   // null for plain Manhattan
+    private final int[] tiles;           // scratch for heuristic estimates
+    private long expanded;               // nodes whose neighbors were generated
     
     public Solver(Board initial) {
+        this(initial, Strategy.A_STAR);
+    }
+
+    public Solver(Board initial, Strategy strategy) {
+        this(initial, strategy, null);
+    }
+
+    /**
+     * Solves initial with the given strategy. A non-null heuristic is
+     * combined with the Manhattan distance by taking the larger of the two;
+     * it must be admissible for the solution to be optimal.
+     * PARALLEL_A_STAR runs on every available core.
+     */
+    public Solver(Board initial, Strategy strategy, Heuristic heuristic) {
+        this(initial, strategy, heuristic, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * As above, with PARALLEL_A_STAR running on the given number of threads;
+     * the other strategies always run on the calling thread.
+     */
+    public Solver(Board initial, Strategy strategy, Heuristic heuristic, int threads) {
         if (initial == null) {
             throw new IllegalArgumentException("Initial board cannot be null");
         }
-        
-        // Find a solution to the initial board (using the A* algorithm)
-        // Solvability can also be identified by using inversion method
-        Board twinBoard = initial.twin();
-        MinPQ<Node> heap = new MinPQ<>();
-        MinPQ<Node> theap = new MinPQ<>();
-        
-        heap.insert(new Node(0, initial, null));
-        theap.insert(new Node(0, twinBoard, null));
-        
-        while (!heap.isEmpty() && !heap.min().board.isGoal() &&
-               !theap.isEmpty() && !theap.min().board.isGoal()) {
-            
-            Node node = heap.delMin();
-            Node tnode = theap.delMin();
-            
-            for (Board neighbor : node.board.neighbors()) {
-                if (node.previous != null && neighbor.equals(node.previous.board)) {
-                    continue;
-                }
-                heap.insert(new Node(node.moves + 1, neighbor, node));
-            }
-            
-            for (Board neighbor : tnode.board.neighbors()) {
-                if (tnode.previous != null && neighbor.equals(tnode.previous.board)) {
-                    continue;
-                }
-                theap.insert(new Node(tnode.moves + 1, neighbor, tnode));
-            }
+        if (strategy == null) {
+            throw new IllegalArgumentException("Strategy cannot be null");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be greater than 0");
         }
+        this.initial = initial;
+        this.heuristic = heuristic;
+        this.tiles = heuristic == null ? null : new int[initial.dimension() * initial.dimension()];
         
-        if (!heap.isEmpty() && heap.min().board.isGoal()) {
-            this.solvable = true;
-            this.minMoves = heap.min().moves;
-            this.solutionNode = heap.min();
-        } else {
+        // The inversion parity decides solvability up front, so only
+        // solvable boards are searched
+        if (!initial.isSolvable()) {
             this.solvable = false;
             this.minMoves = -1;
-            this.solutionNode = null;
+            this.solutionMoves = null;
+            return;
+        }
+
+        if (strategy != Strategy.A_STAR) {
+            int[] path;
+            if (strategy == Strategy.IDA_STAR) {
+                IdaStar search = new IdaStar(initial, heuristic);
+                path = search.solve();
+                this.expanded = search.expanded();
+            } else {
+                ParallelAStar search = new ParallelAStar(initial, heuristic, threads);
+                path = search.solve();
+                this.expanded = search.expanded();
+            }
+
+            // Translate the positions the empty tile visits into move codes
+            int dim = initial.dimension();
+            char[] moves = new char[path.length];
+            int blank = initial.blankPosition();
+            for (int i = 0; i < path.length; i++) {
+                moves[i] = MOVES.charAt(moveCode(blank, path[i], dim));
+                blank = path[i];
+            }
+            this.solvable = true;
+            this.minMoves = path.length;
+            this.solutionMoves = new String(moves);
+            return;
+        }
+
+        // Find a solution to the initial board (using the A* algorithm).
+        // Priorities are small integers, so the open list is a bucket queue
+        // that breaks ties towards the deepest, most recently added node.
+        BucketQueue<Node> open = new BucketQueue<>();
+        int h = estimate(initial);
+        open.push(new Node(0, initial, null, NO_MOVE), h, h);
+
+        // Fewest moves each board was expanded at. A later copy is skipped
+        // unless it arrives by a shorter path, which only an inconsistent
+        // heuristic allows; the board is then reopened.
+        LongIntHashMap closed = new LongIntHashMap();
+
+        int dim = initial.dimension();
+        Node node = open.pop();
+        Board board = boardOf(node, dim);
+        while (!board.isGoal()) {
+            expand(node, board, open, closed);
+            node = open.pop();
+            board = boardOf(node, dim);
         }
+
+        char[] moves = new char[node.moves];
+        for (Node n = node; n.move != NO_MOVE; n = n.previous) {
+            moves[n.moves - 1] = MOVES.charAt(n.move);
+        }
+        this.solvable = true;
+        this.minMoves = node.moves;
+        this.solutionMoves = new String(moves);
     }
     
+    private static Board boardOf(Node node, int dim) {
+        return node.board != null ? node.board : Board.fromKey(dim, node.key);
+    }
+
+    private int estimate(Board board) {
+        if (heuristic == null) {
+            return board.manhattan();
+        }
+        board.copyTiles(tiles);
+        return Math.max(board.manhattan(), heuristic.estimate(tiles, board.dimension()));
+    }
+
+    // Code of the move taking the empty tile from one position to the next
+    static int moveCode(int from, int to, int dim) {
+        if (to == from - dim) {
+            return 0;
+        } else if (to == from + dim) {
+            return 1;
+        } else if (to == from - 1) {
+            return 2;
+        }
+        return 3;
+    }
+
+    // Position the empty tile moves to with the given move code, or -1 if
+    // that would leave the board
+    static int target(int blank, int code, int dim) {
+        int row = blank / dim;
+        int col = blank % dim;
+        if (code == 0) {
+            return row > 0 ? blank - dim : -1;
+        } else if (code == 1) {
+            return row < dim - 1 ? blank + dim : -1;
+        } else if (code == 2) {
+            return col > 0 ? blank - 1 : -1;
+        }
+        return col < dim - 1 ? blank + 1 : -1;
+    }
+
+    // Enqueues the neighbors of node, whose board is given, unless it was
+    // expanded already at no more moves
+    private void expand(Node node, Board board, BucketQueue<Node> open, LongIntHashMap closed) {
+        node.board = null;
+        if (!closed.putIfLess(node.key, node.moves)) {
+            return;
+        }
+        expanded++;
+
+        int dim = board.dimension();
+        int blank = board.blankPosition();
+        for (int code = 0; code < MOVES.length(); code++) {
+            // Never undo the move that led here
+            if (node.move != NO_MOVE && code == (node.move ^ 1)) {
+                continue;
+            }
+            int pos = target(blank, code, dim);
+            if (pos < 0) {
+                continue;
+            }
+            Board neighbor = board.slide(pos);
+            if (closed.get(neighbor.key()) <= node.moves + 1) {
+                continue;
+            }
+            int h = estimate(neighbor);
+            open.push(new Node(node.moves + 1, neighbor, node, code), node.moves + 1 + h, h);
+        }
+    }
+
     public boolean isSolvable() {
         return solvable;
     }
@@ -87,25 +229,36 @@ public class Solver {
         return minMoves;
     }
     
+    // Number of nodes the search expanded, for benchmarking
+    long nodesExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Moves of an optimal solution as a string of 'U', 'D', 'L' and 'R',
+     * one per move, giving the direction the empty tile moves in; null if
+     * the board is unsolvable
+     */
+    public String solutionMoves() {
+        return solutionMoves;
+    }
+
+    // Boards from initial to goal, replayed from the moves as they are iterated
     public Iterable<Board> solution() {
         if (!isSolvable()) {
             return null;
         }
         
-        Stack<Board> path = new Stack<>();
-        Node node = solutionNode;
-        while (node != null) {
-            path.push(node.board);
-            node = node.previous;
-        }
-        
         return new Iterable<Board>() {
             @Override
             public Iterator<Board> iterator() {
                 return new Iterator<Board>() {
+                    private Board next = initial;
+                    private int index;
+
                     @Override
                     public boolean hasNext() {
-                        return !path.isEmpty();
+                        return next != null;
                     }
                     
                     @Override
@@ -113,13 +266,22 @@ public class Solver {
                         if (!hasNext()) {
                             throw new NoSuchElementException();
                         }
-                        return path.pop();
+                        Board board = next;
+                        if (index < solutionMoves.length()) {
+                            int code = MOVES.indexOf(solutionMoves.charAt(index++));
+                            next = board.slide(target(board.blankPosition(), code, board.dimension()));
+                        } else {
+                            next = null;
+                        }
+                        return board;
                     }
                 };
             }
         };
     }
 
+    // Usage: Solver puzzle-file [a_star|ida_star|parallel_a_star [pattern-database-file]]
+    // Without a pattern database, the 15-puzzle and larger use linear conflicts
     public static void main(String[] args) {
 
     // create initial board from file
@@ -132,7 +294,13 @@ public class Solver {
     Board initial = new Board(tiles);
 
     // solve the puzzle
-    Solver solver = new Solver(initial);
+    Strategy strategy = args.length > 1 ? Strategy.valueOf(args[1].toUpperCase()) : Strategy.A_STAR;
+    Heuristic heuristic = null;
+    if (args.length > 2)
+        heuristic = PatternDatabase.load(Paths.get(args[2]));
+    else if (n > 3)
+        heuristic = new LinearConflict();
+    Solver solver = new Solver(initial, strategy, heuristic);
 
     // print solution to standard output
     if (!solver.isSolvable())
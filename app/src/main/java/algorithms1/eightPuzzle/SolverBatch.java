@@ -0,0 +1,260 @@
+package algorithms1.eightPuzzle; // Remove this line before submission
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Solves many puzzles in one JVM. Puzzles are read lazily, either one per
+ * file from a directory (in file name order) or back to back from a single
+ * file or standard input, and solved on a pool of worker threads. At most a
+ * small window of puzzles is in flight, and results are reported in input
+ * order. Heuristics are shared by all workers, so a pattern database is
+ * loaded only once.
+ */
+public class SolverBatch {
+
+    // Outcome of solving one puzzle
+    public static final class Result {
+        private final String name;
+        private final int moves;
+        private final long nodesExpanded;
+        private final long nanos;
+
+        private Result(String name, int moves, long nodesExpanded, long nanos) {
+            this.name = name;
+            this.moves = moves;
+            this.nodesExpanded = nodesExpanded;
+            this.nanos = nanos;
+        }
+
+        // file name, or input name and 1-based index for concatenated input
+        public String name() {
+            return name;
+        }
+
+        // minimum number of moves, -1 if unsolvable
+        public int moves() {
+            return moves;
+        }
+
+        public long nodesExpanded() {
+            return nodesExpanded;
+        }
+
+        // solve time, excluding time spent reading and waiting in the queue
+        public long nanos() {
+            return nanos;
+        }
+    }
+
+    // Consumer of results, called on the submitting thread in input order
+    public interface Listener {
+        void solved(Result result);
+    }
+
+    private final int threads;
+    private final Solver.Strategy strategy;
+    private final PatternDatabase patterns;  // null for none
+
+    /**
+     * Solves on up to {@code threads} threads with the given strategy. Boards
+     * the size of {@code patterns} use it, others fall back to linear
+     * conflicts (or plain Manhattan for 3-by-3 and smaller).
+     */
+    public SolverBatch(int threads, Solver.Strategy strategy, PatternDatabase patterns) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be greater than 0");
+        }
+        if (strategy == null) {
+            throw new IllegalArgumentException("Strategy cannot be null");
+        }
+        this.threads = threads;
+        this.strategy = strategy;
+        this.patterns = patterns;
+    }
+
+    private Heuristic heuristicFor(int n) {
+        if (patterns != null && patterns.dimension() == n) {
+            return patterns;
+        }
+        return n > 3 ? new LinearConflict() : null;
+    }
+
+    // Solves a single named board, timing only the search. The batch keeps
+    // every worker busy with its own puzzle, so a parallel search gets one
+    // thread rather than competing with the other workers for cores.
+    private Result solve(String name, Board board) {
+        long start = System.nanoTime();
+        Solver solver = new Solver(board, strategy, heuristicFor(board.dimension()), 1);
+        long nanos = System.nanoTime() - start;
+        return new Result(name, solver.moves(), solver.nodesExpanded(), nanos);
+    }
+
+    /**
+     * Solves every puzzle from input and hands the results to listener in
+     * input order. The input is either a directory holding one puzzle per
+     * file, or a single file (or "-" for standard input) with puzzles back
+     * to back in the usual format.
+     */
+    public void run(String input, Listener listener) {
+        if (input == null || listener == null) {
+            throw new IllegalArgumentException("Arguments cannot be null");
+        }
+        Path path = Paths.get(input);
+        if (!"-".equals(input) && Files.isDirectory(path)) {
+            run(new DirectoryPuzzles(path), listener);
+        } else {
+            try (StreamPuzzles puzzles = new StreamPuzzles(input)) {
+                run(puzzles, listener);
+            }
+        }
+    }
+
+    // Keeps a bounded window of puzzles in flight and reports them in
+    // submission order, so reading never runs far ahead of solving
+    private void run(Iterator<Puzzle> puzzles, Listener listener) {
+        if (threads == 1) {
+            while (puzzles.hasNext()) {
+                Puzzle puzzle = puzzles.next();
+                listener.solved(solve(puzzle.name, puzzle.board));
+            }
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ArrayDeque<ForkJoinTask<Result>> window = new ArrayDeque<>();
+        try {
+            while (puzzles.hasNext() || !window.isEmpty()) {
+                while (puzzles.hasNext() && window.size() < 2 * threads) {
+                    Puzzle puzzle = puzzles.next();
+                    window.add(pool.submit(() -> solve(puzzle.name, puzzle.board)));
+                }
+                listener.solved(window.poll().join());
+            }
+        } finally {
+            for (ForkJoinTask<Result> task : window) {
+                task.cancel(false);
+            }
+            pool.shutdown();
+        }
+    }
+
+    private static final class Puzzle {
+        private final String name;
+        private final Board board;
+
+        private Puzzle(String name, Board board) {
+            this.name = name;
+            this.board = board;
+        }
+    }
+
+    private static Board readBoard(In in) {
+        int n = in.readInt();
+        int[][] tiles = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                tiles[i][j] = in.readInt();
+        return new Board(tiles);
+    }
+
+    // One puzzle per regular file, in file name order
+    private static final class DirectoryPuzzles implements Iterator<Puzzle> {
+        private final Iterator<Path> files;
+
+        private DirectoryPuzzles(Path dir) {
+            try (Stream<Path> listing = Files.list(dir)) {
+                List<Path> sorted = listing.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                this.files = sorted.iterator();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot list puzzle directory " + dir, e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return files.hasNext();
+        }
+
+        @Override
+        public Puzzle next() {
+            Path file = files.next();
+            In in = new In(file.toFile());
+            try {
+                return new Puzzle(file.getFileName().toString(), readBoard(in));
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    // Puzzles back to back in one file, or on standard input for "-"
+    private static final class StreamPuzzles implements Iterator<Puzzle>, AutoCloseable {
+        private final String name;
+        private final In in;
+        private int count;
+
+        private StreamPuzzles(String input) {
+            this.name = input;
+            this.in = "-".equals(input) ? new In() : new In(input);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !in.isEmpty();
+        }
+
+        @Override
+        public Puzzle next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            count++;
+            return new Puzzle(name + ":" + count, readBoard(in));
+        }
+
+        // Closes the file; standard input is left open
+        @Override
+        public void close() {
+            if (!"-".equals(name)) {
+                in.close();
+            }
+        }
+    }
+
+    // Usage: SolverBatch input [threads [a_star|ida_star|parallel_a_star [pattern-database-file]]]
+    // Prints one line per puzzle: name, moves (-1 if unsolvable), nodes expanded, milliseconds
+    public static void main(String[] args) {
+        String input = args[0];
+        int threads = args.length > 1
+                ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        Solver.Strategy strategy = args.length > 2
+                ? Solver.Strategy.valueOf(args[2].toUpperCase())
+                : Solver.Strategy.A_STAR;
+        PatternDatabase patterns = args.length > 3 ? PatternDatabase.load(Paths.get(args[3])) : null;
+
+        long start = System.nanoTime();
+        int[] solved = new int[1];
+        new SolverBatch(threads, strategy, patterns).run(input, result -> {
+            solved[0]++;
+            StdOut.printf("%s %d %d %.3f\n", result.name(), result.moves(),
+                    result.nodesExpanded(), result.nanos() / 1e6);
+        });
+        StdOut.printf("solved %d puzzles in %.1f s\n", solved[0], (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,190 @@
+package algorithms1.kdTrees; // Remove this line before submission
+
+import edu.princeton.cs.algs4.Point2D;
+import edu.princeton.cs.algs4.RectHV;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Thread-safe 2d-tree for many concurrent readers and inserters, without
+ * locks. Nodes are never removed or moved, so an insert only ever fills an
+ * empty child link: it descends as KdTree does and compare-and-sets the
+ * link, and if another thread filled it first it simply carries on from the
+ * node that thread added. Links are volatile, so a node is fully built
+ * before any reader can reach it. Queries never block; they see every
+ * insert that completed before they started and may or may not see those
+ * running concurrently.
+ */
+public class ConcurrentKdTree {
+    private static final AtomicReferenceFieldUpdater<ConcurrentKdTree, Node> ROOT =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentKdTree.class, Node.class, "root");
+    private static final AtomicReferenceFieldUpdater<Node, Node> LEFT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "left");
+    private static final AtomicReferenceFieldUpdater<Node, Node> RIGHT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "right");
+
+    private volatile Node root;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private static final class Node {
+        private final Point2D point;
+        private final int level;
+        private volatile Node left;
+        private volatile Node right;
+
+        private Node(Point2D point, int level) {
+            this.point = point;
+            this.level = level;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean contains(Point2D p) {
+        validatePoint(p);
+
+        Node node = root;
+        while (node != null) {
+            if (node.point.equals(p)) {
+                return true;
+            }
+
+            int axis = node.level % 2;
+            boolean goLeft = axis == 0
+                    ? p.x() < node.point.x()
+                    : p.y() < node.point.y();
+            node = goLeft ? node.left : node.right;
+        }
+
+        return false;
+    }
+
+    public void insert(Point2D p) {
+        validatePoint(p);
+
+        Node node = root;
+        if (node == null) {
+            if (ROOT.compareAndSet(this, null, new Node(p, 0))) {
+                size.incrementAndGet();
+                return;
+            }
+            node = root;
+        }
+
+        // Every thread inserting p follows the same path, so racing inserts
+        // of one point meet at the node the winner added
+        while (true) {
+            if (node.point.equals(p)) {
+                return; // Do not insert duplicates
+            }
+
+            int axis = node.level % 2;
+            boolean goLeft = axis == 0
+                    ? p.x() < node.point.x()
+                    : p.y() < node.point.y();
+            AtomicReferenceFieldUpdater<Node, Node> link = goLeft ? LEFT : RIGHT;
+
+            Node child = link.get(node);
+            if (child == null) {
+                if (link.compareAndSet(node, null, new Node(p, node.level + 1))) {
+                    size.incrementAndGet();
+                    return;
+                }
+                child = link.get(node);
+            }
+            node = child;
+        }
+    }
+
+    public Iterable<Point2D> range(RectHV rect) {
+        validateRect(rect);
+
+        List<Point2D> result = new ArrayList<>();
+        range(rect, root, result);
+        return result;
+    }
+
+    private void range(RectHV rect, Node node, List<Point2D> acc) {
+        if (node == null) {
+            return;
+        }
+
+        if (rect.contains(node.point)) {
+            acc.add(node.point);
+        }
+
+        int axis = node.level % 2;
+        boolean goLeft = axis == 0
+                ? rect.xmin() < node.point.x()
+                : rect.ymin() < node.point.y();
+        boolean goRight = axis == 0
+                ? rect.xmax() >= node.point.x()
+                : rect.ymax() >= node.point.y();
+
+        if (goLeft) {
+            range(rect, node.left, acc);
+        }
+        if (goRight) {
+            range(rect, node.right, acc);
+        }
+    }
+
+    public Point2D nearest(Point2D p) {
+        validatePoint(p);
+        Node start = root;
+        return start == null ? null : nearest(p, start, start.point);
+    }
+
+    private Point2D nearest(Point2D target, Node node, Point2D best) {
+        if (node == null) {
+            return best;
+        }
+
+        double bestDistance = target.distanceSquaredTo(best);
+        double currentDistance = target.distanceSquaredTo(node.point);
+        if (currentDistance < bestDistance) {
+            best = node.point;
+            bestDistance = currentDistance;
+        }
+
+        int axis = node.level % 2;
+        boolean goLeft = axis == 0
+                ? target.x() < node.point.x()
+                : target.y() < node.point.y();
+        Node firstSide = goLeft ? node.left : node.right;
+        Node secondSide = goLeft ? node.right : node.left;
+
+        best = nearest(target, firstSide, best);
+        bestDistance = target.distanceSquaredTo(best);
+
+        double splitDistance = axis == 0
+                ? target.x() - node.point.x()
+                : target.y() - node.point.y();
+        if (splitDistance * splitDistance < bestDistance) {
+            best = nearest(target, secondSide, best);
+        }
+
+        return best;
+    }
+
+    private void validatePoint(Point2D p) {
+        if (p == null) {
+            throw new IllegalArgumentException("point must not be null");
+        }
+    }
+
+    private void validateRect(RectHV rect) {
+        if (rect == null) {
+            throw new IllegalArgumentException("rect must not be null");
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package algorithms1.kdTrees; // Remove this line before submission
+
+import edu.princeton.cs.algs4.Point2D;
+import edu.princeton.cs.algs4.RectHV;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable 2d-tree with no per-node objects: the coordinates live in two
+ * parallel arrays in implicit (Eytzinger) order, node i having children
+ * 2i + 1 and 2i + 2, so a query walks contiguous memory and the tree takes
+ * 16 bytes per point. The tree is complete and left-balanced, which fixes
+ * the rank each node splits at; points equal to a node on its axis may
+ * therefore sit on either side, and the queries allow for that.
+ * Obtained from KdTree.freeze().
+ */
+public class FrozenKdTree {
+    // Queries handled by one task of a batch
+    private static final int BATCH_CHUNK = 256;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int size;
+
+    // points must be distinct; the array is reordered
+    FrozenKdTree(Point2D[] points) {
+        this.size = points.length;
+        this.xs = new double[size];
+        this.ys = new double[size];
+        fill(points, 0, size - 1, 0, 0);
+    }
+
+    // Places a[lo..hi] as the subtree rooted at node i, splitting on the
+    // axis of level at the rank that keeps the tree complete
+    private void fill(Point2D[] a, int lo, int hi, int i, int level) {
+        if (lo > hi) {
+            return;
+        }
+        int k = lo + leftSize(hi - lo + 1);
+        KdTree.select(a, lo, hi, k, level % 2);
+        xs[i] = a[k].x();
+        ys[i] = a[k].y();
+        fill(a, lo, k - 1, 2 * i + 1, level + 1);
+        fill(a, k + 1, hi, 2 * i + 2, level + 1);
+    }
+
+    // Size of the left subtree of a complete binary tree with m nodes
+    private static int leftSize(int m) {
+        if (m <= 1) {
+            return 0;
+        }
+        int half = Integer.highestOneBit(m) >>> 1;  // last level slots per subtree
+        int last = m - (2 * half - 1);              // nodes on the last level
+        return half - 1 + Math.min(last, half);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(Point2D p) {
+        validatePoint(p);
+        return contains(p.x(), p.y(), 0, 0);
+    }
+
+    private boolean contains(double x, double y, int i, int level) {
+        while (i < size) {
+            if (xs[i] == x && ys[i] == y) {
+                return true;
+            }
+            double c = level % 2 == 0 ? x - xs[i] : y - ys[i];
+            if (c == 0 && contains(x, y, 2 * i + 1, level + 1)) {
+                return true;
+            }
+            i = c < 0 ? 2 * i + 1 : 2 * i + 2;
+            level++;
+        }
+        return false;
+    }
+
+    public Iterable<Point2D> range(RectHV rect) {
+        validateRect(rect);
+
+        List<Point2D> result = new ArrayList<>();
+        range(rect.xmin(), rect.ymin(), rect.xmax(), rect.ymax(), 0, 0, result);
+        return result;
+    }
+
+    private void range(double xmin, double ymin, double xmax, double ymax, int i, int level, List<Point2D> acc) {
+        if (i >= size) {
+            return;
+        }
+        double x = xs[i];
+        double y = ys[i];
+        if (x >= xmin && x <= xmax && y >= ymin && y <= ymax) {
+            acc.add(new Point2D(x, y));
+        }
+
+        boolean goLeft = level % 2 == 0 ? xmin <= x : ymin <= y;
+        boolean goRight = level % 2 == 0 ? xmax >= x : ymax >= y;
+        if (goLeft) {
+            range(xmin, ymin, xmax, ymax, 2 * i + 1, level + 1, acc);
+        }
+        if (goRight) {
+            range(xmin, ymin, xmax, ymax, 2 * i + 2, level + 1, acc);
+        }
+    }
+
+    public Point2D nearest(Point2D p) {
+        validatePoint(p);
+        if (isEmpty()) {
+            return null;
+        }
+        int best = nearest(p.x(), p.y(), 0, 0, 0);
+        return new Point2D(xs[best], ys[best]);
+    }
+
+    private int nearest(double x, double y, int i, int level, int best) {
+        if (i >= size) {
+            return best;
+        }
+
+        if (distanceSquared(x, y, i) < distanceSquared(x, y, best)) {
+            best = i;
+        }
+
+        double splitDistance = level % 2 == 0 ? x - xs[i] : y - ys[i];
+        int firstSide = splitDistance < 0 ? 2 * i + 1 : 2 * i + 2;
+        int secondSide = splitDistance < 0 ? 2 * i + 2 : 2 * i + 1;
+
+        best = nearest(x, y, firstSide, level + 1, best);
+        if (splitDistance * splitDistance < distanceSquared(x, y, best)) {
+            best = nearest(x, y, secondSide, level + 1, best);
+        }
+
+        return best;
+    }
+
+    private double distanceSquared(double x, double y, int i) {
+        double dx = x - xs[i];
+        double dy = y - ys[i];
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * nearest() for every query, answered on the common fork-join pool. The
+     * answer for queries[i] is at index i (null if the tree is empty).
+     * Queries are visited in Morton (Z-curve) order, so consecutive queries
+     * on a thread walk mostly the same nodes.
+     */
+    public Point2D[] nearestAll(Point2D[] queries) {
+        return nearestAll(queries, ForkJoinPool.commonPool());
+    }
+
+    // Same as nearestAll(queries), answered on the given pool
+    public Point2D[] nearestAll(Point2D[] queries, ForkJoinPool pool) {
+        if (queries == null) {
+            throw new IllegalArgumentException("queries must not be null");
+        }
+        validatePool(pool);
+        double[] qx = new double[queries.length];
+        double[] qy = new double[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            validatePoint(queries[i]);
+            qx[i] = queries[i].x();
+            qy[i] = queries[i].y();
+        }
+
+        Point2D[] results = new Point2D[queries.length];
+        if (!isEmpty()) {
+            forEachInMortonOrder(qx, qy, pool, i -> {
+                int best = nearest(qx[i], qy[i], 0, 0, 0);
+                results[i] = new Point2D(xs[best], ys[best]);
+            });
+        }
+        return results;
+    }
+
+    /**
+     * range() for every rectangle, answered on the common fork-join pool.
+     * The points in rects[i] are at index i. Rectangles are visited in
+     * Morton order of their centers, as in nearestAll().
+     */
+    public List<Iterable<Point2D>> rangeAll(RectHV[] rects) {
+        return rangeAll(rects, ForkJoinPool.commonPool());
+    }
+
+    // Same as rangeAll(rects), answered on the given pool
+    public List<Iterable<Point2D>> rangeAll(RectHV[] rects, ForkJoinPool pool) {
+        if (rects == null) {
+            throw new IllegalArgumentException("rects must not be null");
+        }
+        validatePool(pool);
+        double[] cx = new double[rects.length];
+        double[] cy = new double[rects.length];
+        for (int i = 0; i < rects.length; i++) {
+            validateRect(rects[i]);
+            cx[i] = (rects[i].xmin() + rects[i].xmax()) / 2;
+            cy[i] = (rects[i].ymin() + rects[i].ymax()) / 2;
+        }
+
+        @SuppressWarnings("unchecked")
+        Iterable<Point2D>[] results = (Iterable<Point2D>[]) new Iterable<?>[rects.length];
+        forEachInMortonOrder(cx, cy, pool, i -> {
+            List<Point2D> acc = new ArrayList<>();
+            RectHV rect = rects[i];
+            range(rect.xmin(), rect.ymin(), rect.xmax(), rect.ymax(), 0, 0, acc);
+            results[i] = acc;
+        });
+        return Arrays.asList(results);
+    }
+
+    // Runs action on every index of the query coordinates, in Morton order
+    // of the coordinates, split into contiguous chunks across the pool
+    private static void forEachInMortonOrder(double[] x, double[] y, ForkJoinPool pool, IntConsumer action) {
+        int n = x.length;
+        if (n == 0) {
+            return;
+        }
+
+        // Quantise to 16 bits per axis within the queries' bounding box and
+        // pack the interleaved code above the index, so one primitive sort
+        // orders the indices. The code fills all 32 high bits, so the sign
+        // bit is flipped to make the signed sort order them as unsigned.
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double scaleX = maxX > minX ? 0xFFFF / (maxX - minX) : 0;
+        double scaleY = maxY > minY ? 0xFFFF / (maxY - minY) : 0;
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            int cellX = (int) ((x[i] - minX) * scaleX);
+            int cellY = (int) ((y[i] - minY) * scaleY);
+            long code = interleave(cellX) | (interleave(cellY) << 1);
+            order[i] = (code << 32 | i) ^ Long.MIN_VALUE;
+        }
+
+        if (pool.getParallelism() == 1 || n <= BATCH_CHUNK) {
+            Arrays.sort(order);
+            for (long entry : order) {
+                action.accept((int) entry);
+            }
+            return;
+        }
+
+        // parallelSort forks into the pool of the worker running it
+        pool.invoke(ForkJoinTask.adapt(() -> Arrays.parallelSort(order)));
+        pool.invoke(new BatchTask(order, 0, n, action));
+    }
+
+    // Spreads the low 16 bits of v to the even bit positions
+    private static long interleave(int v) {
+        long z = v & 0xFFFFL;
+        z = (z | (z << 8)) & 0x00FF00FFL;
+        z = (z | (z << 4)) & 0x0F0F0F0FL;
+        z = (z | (z << 2)) & 0x33333333L;
+        z = (z | (z << 1)) & 0x55555555L;
+        return z;
+    }
+
+    private static final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] order;
+        private final int lo;
+        private final int hi;
+        private final IntConsumer action;
+
+        private BatchTask(long[] order, int lo, int hi, IntConsumer action) {
+            this.order = order;
+            this.lo = lo;
+            this.hi = hi;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= BATCH_CHUNK) {
+                for (int i = lo; i < hi; i++) {
+                    action.accept((int) order[i]);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new BatchTask(order, lo, mid, action), new BatchTask(order, mid, hi, action));
+        }
+    }
+
+    private void validatePoint(Point2D p) {
+        if (p == null) {
+            throw new IllegalArgumentException("point must not be null");
+        }
+    }
+
+    private void validateRect(RectHV rect) {
+        if (rect == null) {
+            throw new IllegalArgumentException("rect must not be null");
+        }
+    }
+
+    private static void validatePool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+    }
+}
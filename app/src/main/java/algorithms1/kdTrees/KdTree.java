@@ -5,11 +5,21 @@ import edu.princeton.cs.algs4.RectHV;
 import edu.princeton.cs.algs4.StdDraw;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public class KdTree {
+    // Subtrees smaller than this are built on the current thread
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
     private Node root;
     private int size;
+    private FrozenKdTree snapshot;  // for batch queries, dropped on insert
 
     private static final class Node {
         private final Point2D point;
@@ -27,6 +37,181 @@ public class KdTree {
         }
     }
 
+    /**
+     * Builds a balanced tree from points in O(n log n), whatever their order.
+     * Each node splits its points at the median on its axis, so the depth is
+     * O(log n) instead of the O(n) that inserting sorted points gives.
+     * Duplicate points are kept once, as with insert().
+     */
+    public static KdTree build(Point2D[] points) {
+        return build(points, 1);
+    }
+
+    // Same as build(points), sorting and splitting large subtrees on up to
+    // threads threads
+    public static KdTree build(Point2D[] points, int threads) {
+        if (points == null) {
+            throw new IllegalArgumentException("points must not be null");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be greater than 0");
+        }
+        Point2D[] copy = points.clone();
+        for (Point2D p : copy) {
+            if (p == null) {
+                throw new IllegalArgumentException("point must not be null");
+            }
+        }
+
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            // Sorting brings equal points together so duplicates can be
+            // dropped. parallelSort forks its subtasks into the pool of the
+            // worker running it, so run there it keeps to threads.
+            if (pool == null) {
+                Arrays.sort(copy);
+            } else {
+                pool.invoke(ForkJoinTask.adapt(() -> Arrays.parallelSort(copy)));
+            }
+            int distinct = 0;
+            for (int i = 0; i < copy.length; i++) {
+                if (distinct == 0 || copy[i].compareTo(copy[distinct - 1]) != 0) {
+                    copy[distinct++] = copy[i];
+                }
+            }
+
+            KdTree tree = new KdTree();
+            tree.size = distinct;
+            if (pool == null || distinct < PARALLEL_THRESHOLD) {
+                tree.root = build(copy, 0, distinct - 1, 0);
+            } else {
+                tree.root = pool.invoke(new BuildTask(copy, 0, distinct - 1, 0));
+            }
+            return tree;
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Builds the subtree holding a[lo..hi], splitting on the axis of level
+    private static Node build(Point2D[] a, int lo, int hi, int level) {
+        if (lo > hi) {
+            return null;
+        }
+        int split = split(a, lo, hi, level % 2);
+        Node node = new Node(a[split], level);
+        node.left = build(a, lo, split - 1, level + 1);
+        node.right = build(a, split + 1, hi, level + 1);
+        return node;
+    }
+
+    private static final class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final Point2D[] a;
+        private final int lo;
+        private final int hi;
+        private final int level;
+
+        private BuildTask(Point2D[] a, int lo, int hi, int level) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.level = level;
+        }
+
+        @Override
+        protected Node compute() {
+            if (hi - lo < PARALLEL_THRESHOLD) {
+                return build(a, lo, hi, level);
+            }
+            int split = split(a, lo, hi, level % 2);
+            Node node = new Node(a[split], level);
+            BuildTask left = new BuildTask(a, lo, split - 1, level + 1);
+            left.fork();
+            node.right = new BuildTask(a, split + 1, hi, level + 1).compute();
+            node.left = left.join();
+            return node;
+        }
+    }
+
+    // Index of the splitting point for a[lo..hi]: the first of the points
+    // equal to the median on axis, so the points before it are strictly
+    // smaller and those after it are greater or equal, which is the order
+    // contains() and insert() descend in
+    private static int split(Point2D[] a, int lo, int hi, int axis) {
+        return select(a, lo, hi, lo + (hi - lo) / 2, axis);
+    }
+
+    /**
+     * Quickselect with a 3-way partition: rearranges a[lo..hi] so that the
+     * point of rank k on axis is at index k, smaller points come before it
+     * and larger ones after it, with the points equal to it contiguous
+     * around k. Returns the index of the first of those equal points.
+     * Expected linear time for any input order.
+     */
+    static int select(Point2D[] a, int lo, int hi, int k, int axis) {
+        while (true) {
+            // Random pivot, so no input order, such as a median-of-3 killer,
+            // makes the selection quadratic; ThreadLocalRandom as BuildTask
+            // selects on several threads at once
+            double v = coordinate(a[ThreadLocalRandom.current().nextInt(lo, hi + 1)], axis);
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                double c = coordinate(a[i], axis);
+                if (c < v) {
+                    swap(a, lt++, i++);
+                } else if (c > v) {
+                    swap(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            // Everything left of lo is below v and right of hi above it
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return lt;
+            }
+        }
+    }
+
+    private static double coordinate(Point2D p, int axis) {
+        return axis == 0 ? p.x() : p.y();
+    }
+
+    private static void swap(Point2D[] a, int i, int j) {
+        Point2D t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /**
+     * Read-only snapshot of the current points in a compact array layout,
+     * see FrozenKdTree. Later inserts do not affect the snapshot.
+     */
+    public FrozenKdTree freeze() {
+        Point2D[] points = new Point2D[size];
+        collect(root, points, 0);
+        return new FrozenKdTree(points);
+    }
+
+    // Copies the points of the subtree into a from index i, returns the next index
+    private static int collect(Node node, Point2D[] a, int i) {
+        if (node == null) {
+            return i;
+        }
+        a[i++] = node.point;
+        i = collect(node.left, a, i);
+        return collect(node.right, a, i);
+    }
+
     public boolean isEmpty() {
         return size == 0;
     }
@@ -95,6 +280,7 @@ public class KdTree {
         if (isEmpty()) {
             root = new Node(p);
             size = 1;
+            snapshot = null;
             return;
         }
 
@@ -125,6 +311,7 @@ public class KdTree {
         }
 
         size++;
+        snapshot = null;
     }
 
     public Iterable<Point2D> range(RectHV rect) {
@@ -197,6 +384,187 @@ public class KdTree {
         return best;
     }
 
+    /**
+     * nearest() for every query, with the answer for queries[i] at index i.
+     * Queries run in parallel on the common fork-join pool against a frozen
+     * snapshot of the tree, which is kept until the next insert; see
+     * FrozenKdTree.nearestAll().
+     */
+    public Point2D[] nearestAll(Point2D[] queries) {
+        return snapshot().nearestAll(queries);
+    }
+
+    // range() for every rectangle, in parallel as for nearestAll()
+    public List<Iterable<Point2D>> rangeAll(RectHV[] rects) {
+        return snapshot().rangeAll(rects);
+    }
+
+    private FrozenKdTree snapshot() {
+        if (snapshot == null) {
+            snapshot = freeze();
+        }
+        return snapshot;
+    }
+
+    /**
+     * The k points closest to p, nearest first (fewer if the tree holds
+     * fewer than k points)
+     */
+    public Iterable<Point2D> nearest(Point2D p, int k) {
+        List<Point2D> result = new ArrayList<>();
+        nearest(p, k, result::add);
+        return result;
+    }
+
+    // Same as nearest(p, k), handing the points to visitor nearest first
+    public void nearest(Point2D p, int k, Consumer<Point2D> visitor) {
+        validatePoint(p);
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor must not be null");
+        }
+        if (k == 0 || isEmpty()) {
+            return;
+        }
+
+        NearestK best = new NearestK(Math.min(k, size));
+        nearest(p, root, best);
+        best.drain(visitor);
+    }
+
+    private void nearest(Point2D target, Node node, NearestK best) {
+        if (node == null) {
+            return;
+        }
+
+        best.offer(node.point, target.distanceSquaredTo(node.point));
+
+        int axis = node.level % 2;
+        double splitDistance = axis == 0
+                ? target.x() - node.point.x()
+                : target.y() - node.point.y();
+        Node firstSide = splitDistance < 0 ? node.left : node.right;
+        Node secondSide = splitDistance < 0 ? node.right : node.left;
+
+        nearest(target, firstSide, best);
+        if (splitDistance * splitDistance < best.bound()) {
+            nearest(target, secondSide, best);
+        }
+    }
+
+    // Bounded max-heap on squared distance holding the k closest points seen
+    private static final class NearestK {
+        private final Point2D[] points;
+        private final double[] distances;
+        private int size;
+
+        private NearestK(int k) {
+            this.points = new Point2D[k];
+            this.distances = new double[k];
+        }
+
+        // Squared distance a point must beat to be kept
+        private double bound() {
+            return size < points.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        private void offer(Point2D p, double distance) {
+            if (size < points.length) {
+                // Sift the new point up from the end
+                int i = size++;
+                while (i > 0 && distances[(i - 1) / 2] < distance) {
+                    points[i] = points[(i - 1) / 2];
+                    distances[i] = distances[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                points[i] = p;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                siftDown(p, distance, size);
+            }
+        }
+
+        // Places p at the root of heap[0, n) and sifts it down
+        private void siftDown(Point2D p, double distance, int n) {
+            int i = 0;
+            while (2 * i + 1 < n) {
+                int child = 2 * i + 1;
+                if (child + 1 < n && distances[child + 1] > distances[child]) {
+                    child++;
+                }
+                if (distances[child] <= distance) {
+                    break;
+                }
+                points[i] = points[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            points[i] = p;
+            distances[i] = distance;
+        }
+
+        // Heap-sorts in place, farthest to the end, then visits nearest first
+        private void drain(Consumer<Point2D> visitor) {
+            for (int n = size - 1; n > 0; n--) {
+                Point2D p = points[n];
+                double distance = distances[n];
+                points[n] = points[0];
+                distances[n] = distances[0];
+                siftDown(p, distance, n);
+            }
+            for (int i = 0; i < size; i++) {
+                visitor.accept(points[i]);
+            }
+        }
+    }
+
+    /**
+     * All points within distance r of p (on the circle included), in no
+     * particular order
+     */
+    public Iterable<Point2D> withinRadius(Point2D p, double r) {
+        List<Point2D> result = new ArrayList<>();
+        withinRadius(p, r, result::add);
+        return result;
+    }
+
+    // Same as withinRadius(p, r), handing the points to visitor as they are found
+    public void withinRadius(Point2D p, double r, Consumer<Point2D> visitor) {
+        validatePoint(p);
+        if (!(r >= 0)) {
+            throw new IllegalArgumentException("radius must not be negative");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor must not be null");
+        }
+        withinRadius(p, r * r, root, visitor);
+    }
+
+    // Compares squared distances throughout, so no square roots are taken
+    private void withinRadius(Point2D target, double r2, Node node, Consumer<Point2D> visitor) {
+        if (node == null) {
+            return;
+        }
+
+        if (target.distanceSquaredTo(node.point) <= r2) {
+            visitor.accept(node.point);
+        }
+
+        int axis = node.level % 2;
+        double splitDistance = axis == 0
+                ? target.x() - node.point.x()
+                : target.y() - node.point.y();
+        boolean crossesSplit = splitDistance * splitDistance <= r2;
+        if (splitDistance < 0 || crossesSplit) {
+            withinRadius(target, r2, node.left, visitor);
+        }
+        if (splitDistance >= 0 || crossesSplit) {
+            withinRadius(target, r2, node.right, visitor);
+        }
+    }
+
     private void validatePoint(Point2D p) {
         if (p == null) {
             throw new IllegalArgumentException("point must not be null");
@@ -0,0 +1,247 @@
+package algorithms1.percolation; // Remove this line before submission
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Percolation backend whose union-find state lives in a memory-mapped file
+ * instead of on the heap, with long site indices so grids may hold more than
+ * 2^31 sites. The OS page cache decides what stays resident, so a run larger
+ * than the heap pages instead of failing with OutOfMemoryError.
+ *
+ * The file holds three regions: parent links (8 bytes per site), status bits
+ * and union-by-rank ranks (1 byte each per site). Parent links are stored as
+ * parent + 1 with 0 meaning "root of itself", so a freshly created sparse file
+ * needs no initialisation pass.
+ */
+public class MappedPercolation implements Closeable {
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+
+    // Each mapping covers 1 GiB, well below the 2 GiB limit of a ByteBuffer
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final int n;
+    private final long sites;
+    private final long statusOffset;
+    private final long rankOffset;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private long openSitesCount;
+    private boolean percolates;
+
+    // creates n-by-n grid backed by a temporary file that is deleted on close()
+    public MappedPercolation(int n) {
+        this(n, null);
+    }
+
+    // creates n-by-n grid backed by the given file, which is overwritten
+    public MappedPercolation(int n, Path file) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Grid size must be greater than 0");
+        }
+        this.n = n;
+        this.sites = (long) n * n;
+        this.statusOffset = sites * Long.BYTES;
+        this.rankOffset = statusOffset + sites;
+        long bytes = rankOffset + sites;
+
+        try {
+            if (file == null) {
+                this.channel = FileChannel.open(Files.createTempFile("percolation", ".bin"),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            } else {
+                this.channel = FileChannel.open(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.SPARSE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open percolation state", e);
+        }
+
+        int count = (int) ((bytes + CHUNK_MASK) >>> CHUNK_SHIFT);
+        this.chunks = new MappedByteBuffer[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                long size = Math.min(CHUNK_MASK + 1, bytes - start);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Closing also deletes the temporary file
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new UncheckedIOException("Cannot map percolation state", (IOException) e);
+        }
+    }
+
+    // Validates 1-indexed row and column
+    private void validate(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException("Index out of bounds");
+        }
+    }
+
+    // Maps 1-indexed 2D coordinates to a 0-indexed 1D index
+    private long xyTo1D(int row, int col) {
+        return (long) (row - 1) * n + (col - 1);
+    }
+
+    // Parent links are 8-byte aligned and never straddle a chunk boundary
+    private long parent(long p) {
+        long offset = p * Long.BYTES;
+        long link = chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+        return link == 0 ? p : link - 1;
+    }
+
+    private void setParent(long p, long q) {
+        long offset = p * Long.BYTES;
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putLong((int) (offset & CHUNK_MASK), q + 1);
+    }
+
+    private byte getByte(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) (offset & CHUNK_MASK));
+    }
+
+    private void putByte(long offset, byte value) {
+        chunks[(int) (offset >>> CHUNK_SHIFT)].put((int) (offset & CHUNK_MASK), value);
+    }
+
+    private byte status(long p) {
+        return getByte(statusOffset + p);
+    }
+
+    // Finds the root of site p, halving the path on the way up
+    private long find(long p) {
+        long next = parent(p);
+        while (next != p) {
+            long grand = parent(next);
+            setParent(p, grand);
+            p = grand;
+            next = parent(p);
+        }
+        return p;
+    }
+
+    // Merges the components of p and q by rank, carrying the TOP/BOTTOM bits
+    private void union(long p, long q) {
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+
+        byte rankP = getByte(rankOffset + rootP);
+        byte rankQ = getByte(rankOffset + rootQ);
+        long root;
+        long child;
+        if (rankP < rankQ) {
+            root = rootQ;
+            child = rootP;
+        } else {
+            root = rootP;
+            child = rootQ;
+            if (rankP == rankQ) {
+                putByte(rankOffset + rootP, (byte) (rankP + 1));
+            }
+        }
+        setParent(child, root);
+
+        byte merged = (byte) (status(rootP) | status(rootQ));
+        putByte(statusOffset + root, merged);
+        if ((merged & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col) {
+        validate(row, col);
+        long index = xyTo1D(row, col);
+        if ((status(index) & OPEN) != 0) {
+            return;
+        }
+
+        byte bits = OPEN;
+        if (row == 1) {
+            bits |= TOP;
+        }
+        if (row == n) {
+            bits |= BOTTOM;
+        }
+        putByte(statusOffset + index, bits);
+        openSitesCount++;
+        if ((bits & (TOP | BOTTOM)) == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+
+        // Check all four directions for open neighbors
+        if (row > 1) {
+            unionIfOpen(index, index - n);
+        }
+        if (row < n) {
+            unionIfOpen(index, index + n);
+        }
+        if (col > 1) {
+            unionIfOpen(index, index - 1);
+        }
+        if (col < n) {
+            unionIfOpen(index, index + 1);
+        }
+    }
+
+    // Connects site to neighbor when the neighbor is open
+    private void unionIfOpen(long site, long neighbor) {
+        if ((status(neighbor) & OPEN) != 0) {
+            union(site, neighbor);
+        }
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col) {
+        validate(row, col);
+        return (status(xyTo1D(row, col)) & OPEN) != 0;
+    }
+
+    // is the site (row, col) full?
+    public boolean isFull(int row, int col) {
+        validate(row, col);
+        long index = xyTo1D(row, col);
+        return (status(index) & OPEN) != 0 && (status(find(index)) & TOP) != 0;
+    }
+
+    // returns the number of open sites
+    public long numberOfOpenSites() {
+        return openSitesCount;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // Closes the backing file; the mappings are released once they become unreachable
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,107 +1,300 @@
 package algorithms1.percolation; // Remove this line before submission
 
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public class Percolation {
+    // Per-site status bits. OPEN is meaningful for every site, TOP and BOTTOM
+    // only for union-find roots: they record whether the component touches
+    // the top or the bottom row.
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+
+    // How the per-site status bits are stored
+    public enum Storage {
+        // one byte per site holding all three bits
+        BYTE_PER_SITE,
+        // one bit per site in each of three long[] bitsets
+        BIT_PACKED
+    }
+
     private final int n;
-    private final boolean[][] grid;  // false indicates blocked site
+    private final byte[] status;     // BYTE_PER_SITE only
+    private final long[] openBits;   // BIT_PACKED only
+    private final long[] topBits;    // BIT_PACKED only
+    private final long[] bottomBits; // BIT_PACKED only
+    private final int[] parent;
+    private final byte[] rank;
     private int openSitesCount;
-    private final WeightedQuickUnionUF uf;
-    private final WeightedQuickUnionUF uf_backwash;
-    private final int virtualTop;
-    private final int virtualBottom;
+    private boolean percolates;
+    private int percolatedAt = -1;
+    private IntConsumer percolationListener;
 
     // creates n-by-n grid, with all sites initially blocked
     public Percolation(int n) {
+        this(n, Storage.BYTE_PER_SITE);
+    }
+
+    // creates n-by-n grid using the given status storage
+    public Percolation(int n, Storage storage) {
         if (n <= 0) {
             throw new IllegalArgumentException("Grid size must be greater than 0");
         }
+        if ((long) n * n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid size is too large");
+        }
+        if (storage == null) {
+            throw new IllegalArgumentException("Storage cannot be null");
+        }
         this.n = n;
-        this.grid = new boolean[n][n];  // false by default (blocked)
+        if (storage == Storage.BIT_PACKED) {
+            int words = (int) (((long) n * n + 63) >>> 6);
+            this.status = null;
+            this.openBits = new long[words];
+            this.topBits = new long[words];
+            this.bottomBits = new long[words];
+        } else {
+            this.status = new byte[n * n];  // 0 by default (blocked)
+            this.openBits = null;
+            this.topBits = null;
+            this.bottomBits = null;
+        }
+        this.parent = new int[n * n];
+        this.rank = new byte[n * n];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
         this.openSitesCount = 0;
-        this.uf = new WeightedQuickUnionUF(n * n + 2);  // +2 for virtual top and bottom
-        this.uf_backwash = new WeightedQuickUnionUF(n * n + 1); // +1 for virtual top only
-        this.virtualTop = n * n;
-        this.virtualBottom = n * n + 1;
-    }
-    
-    // Validates 0-indexed row and column
-    private boolean isValid(int row, int col) {
-        return row >= 0 && row < n && col >= 0 && col < n;
-    }
-    
-    // Converts 1-indexed coordinates to 0-indexed
-    private int[] to0Indexed(int row, int col) {
-        return new int[]{row - 1, col - 1};
-    }
-    
-    // Maps 2D coordinates to 1D index
+    }
+
+    // Validates 1-indexed row and column
+    private void validate(int row, int col) {
+        if (row < 1 || row > n || col < 1 || col > n) {
+            throw new IllegalArgumentException("Index out of bounds");
+        }
+    }
+
+    // Maps 1-indexed 2D coordinates to a 0-indexed 1D index
     private int xyTo1D(int row, int col) {
-        return row * n + col;
+        return (row - 1) * n + (col - 1);
+    }
+
+    private boolean isOpenSite(int i) {
+        if (status != null) {
+            return (status[i] & OPEN) != 0;
+        }
+        return (openBits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // TOP/BOTTOM bits of site i, only meaningful for roots
+    private int reach(int i) {
+        if (status != null) {
+            return status[i] & (TOP | BOTTOM);
+        }
+        long bit = 1L << i;
+        int word = i >>> 6;
+        return ((topBits[word] & bit) != 0 ? TOP : 0) | ((bottomBits[word] & bit) != 0 ? BOTTOM : 0);
+    }
+
+    // Marks site i open and ORs the given TOP/BOTTOM bits into it
+    private void markOpen(int i, int reachBits) {
+        addReach(i, reachBits);
+        if (status != null) {
+            status[i] |= OPEN;
+        } else {
+            openBits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    private void addReach(int i, int reachBits) {
+        if (status != null) {
+            status[i] |= (byte) reachBits;
+            return;
+        }
+        long bit = 1L << i;
+        int word = i >>> 6;
+        if ((reachBits & TOP) != 0) {
+            topBits[word] |= bit;
+        }
+        if ((reachBits & BOTTOM) != 0) {
+            bottomBits[word] |= bit;
+        }
+    }
+
+    // Finds the root of site p, halving the path on the way up
+    private int find(int p) {
+        while (parent[p] != p) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // Merges the components of p and q by rank, carrying the TOP/BOTTOM bits
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) {
+            return;
+        }
+
+        int root;
+        if (rank[rootP] < rank[rootQ]) {
+            parent[rootP] = rootQ;
+            root = rootQ;
+        } else if (rank[rootP] > rank[rootQ]) {
+            parent[rootQ] = rootP;
+            root = rootP;
+        } else {
+            parent[rootQ] = rootP;
+            rank[rootP]++;
+            root = rootP;
+        }
+        int merged = reach(rootP) | reach(rootQ);
+        addReach(root, merged);
+        if (merged == (TOP | BOTTOM)) {
+            markPercolated();
+        }
+    }
+
+    // Records the first moment the top and bottom rows join
+    private void markPercolated() {
+        if (percolates) {
+            return;
+        }
+        percolates = true;
+        percolatedAt = openSitesCount;
+        if (percolationListener != null) {
+            percolationListener.accept(percolatedAt);
+        }
     }
 
     // opens the site (row, col) if it is not open already
     public void open(int row, int col) {
-        if (isOpen(row, col)) {
-            return;
+        validate(row, col);
+        int index = xyTo1D(row, col);
+        if (markNewlyOpen(index, row)) {
+            connect(index, row, col);
         }
-        
-        int[] idx = to0Indexed(row, col);
-        int zeroRow = idx[0];
-        int zeroCol = idx[1];
-        
-        grid[zeroRow][zeroCol] = true;
-        openSitesCount++;
-        int index = xyTo1D(zeroRow, zeroCol);
-        
-        // Connect to virtual top if this is a top row site
-        if (zeroRow == 0) {
-            uf.union(index, virtualTop);
-            uf_backwash.union(index, virtualTop);
-        }
-        
-        // Connect to virtual bottom if this is a bottom row site
-        if (zeroRow == n - 1) {
-            uf.union(index, virtualBottom);
-        }
-        
-        // Check all four directions for open neighbors
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-        for (int[] dir : directions) {
-            int newRow = zeroRow + dir[0];
-            int newCol = zeroCol + dir[1];
-            if (isValid(newRow, newCol) && grid[newRow][newCol]) {
-                int neighborIndex = xyTo1D(newRow, newCol);
-                uf.union(index, neighborIndex);
-                uf_backwash.union(index, neighborIndex);
+    }
+
+    /**
+     * Opens the sites (rows[i], cols[i]) for every i. All coordinates are
+     * validated before any site is opened. The grid bits are set first and
+     * the unions are done afterwards in a single sweep over the newly opened
+     * sites in index order.
+     */
+    public void openAll(int[] rows, int[] cols) {
+        if (rows == null || cols == null) {
+            throw new IllegalArgumentException("Rows and columns cannot be null");
+        }
+        if (rows.length != cols.length) {
+            throw new IllegalArgumentException("Rows and columns must have the same length");
+        }
+        int[] sites = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            validate(rows[i], cols[i]);
+            sites[i] = xyTo1D(rows[i], cols[i]);
+        }
+        openSites(sites);
+    }
+
+    /**
+     * Opens every site in the stream, given as 0-indexed row-major indices
+     * (row * n + col). Like openAll(int[], int[]) the whole batch is
+     * validated first, which makes this a cheap way to restore a snapshot.
+     */
+    public void openAll(IntStream siteIndices) {
+        if (siteIndices == null) {
+            throw new IllegalArgumentException("Site indices cannot be null");
+        }
+        int[] sites = siteIndices.toArray();
+        for (int site : sites) {
+            if (site < 0 || site >= parent.length) {
+                throw new IllegalArgumentException("Index out of bounds");
             }
         }
+        openSites(sites);
+    }
+
+    // Marks the sites open, then unions each newly opened one with its open
+    // neighbours; sites is reused to hold the newly opened indices
+    private void openSites(int[] sites) {
+        int fresh = 0;
+        for (int site : sites) {
+            if (markNewlyOpen(site, site / n + 1)) {
+                sites[fresh++] = site;
+            }
+        }
+        Arrays.sort(sites, 0, fresh);
+        for (int i = 0; i < fresh; i++) {
+            int site = sites[i];
+            connect(site, site / n + 1, site % n + 1);
+        }
+    }
+
+    // Opens site index on the given 1-indexed row without any unions;
+    // returns false if it was open already
+    private boolean markNewlyOpen(int index, int row) {
+        if (isOpenSite(index)) {
+            return false;
+        }
+
+        // A freshly opened site is its own root, so the TOP/BOTTOM bits can
+        // be set on it directly before merging with its neighbours
+        int bits = 0;
+        if (row == 1) {
+            bits |= TOP;
+        }
+        if (row == n) {
+            bits |= BOTTOM;
+        }
+        markOpen(index, bits);
+        openSitesCount++;
+        if (bits == (TOP | BOTTOM)) {
+            markPercolated();
+        }
+        return true;
+    }
+
+    // Unions site index at 1-indexed (row, col) with its open neighbours
+    private void connect(int index, int row, int col) {
+        if (row > 1) {
+            unionIfOpen(index, index - n);
+        }
+        if (row < n) {
+            unionIfOpen(index, index + n);
+        }
+        if (col > 1) {
+            unionIfOpen(index, index - 1);
+        }
+        if (col < n) {
+            unionIfOpen(index, index + 1);
+        }
+    }
+
+    // Connects site to neighbor when the neighbor is open
+    private void unionIfOpen(int site, int neighbor) {
+        if (isOpenSite(neighbor)) {
+            union(site, neighbor);
+        }
     }
 
     // is the site (row, col) open?
     public boolean isOpen(int row, int col) {
-        int[] idx = to0Indexed(row, col);
-        int zeroRow = idx[0];
-        int zeroCol = idx[1];
-        
-        if (!isValid(zeroRow, zeroCol)) {
-            throw new IllegalArgumentException("Index out of bounds");
-        }
-        return grid[zeroRow][zeroCol];
+        validate(row, col);
+        return isOpenSite(xyTo1D(row, col));
     }
 
     // is the site (row, col) full?
+    // Fullness is read from the TOP bit of the site's own root, so there is
+    // no virtual bottom site to cause backwash
     public boolean isFull(int row, int col) {
-        int[] idx = to0Indexed(row, col);
-        int zeroRow = idx[0];
-        int zeroCol = idx[1];
-        
-        if (!isValid(zeroRow, zeroCol)) {
-            throw new IllegalArgumentException("Index out of bounds");
-        }
-        
-        return grid[zeroRow][zeroCol] && 
-        uf_backwash.find(xyTo1D(zeroRow, zeroCol)) == uf_backwash.find(virtualTop);
+        validate(row, col);
+        int index = xyTo1D(row, col);
+        return isOpenSite(index) && (reach(find(index)) & TOP) != 0;
     }
 
     // returns the number of open sites
@@ -109,9 +302,82 @@ public class Percolation {
         return openSitesCount;
     }
 
+    // returns the number of open sites in rows fromRow..toRow (inclusive);
+    // the bit-packed storage counts a whole word of sites per step
+    public int numberOfOpenSites(int fromRow, int toRow) {
+        if (fromRow < 1 || toRow > n || fromRow > toRow) {
+            throw new IllegalArgumentException("Row range out of bounds");
+        }
+        int from = xyTo1D(fromRow, 1);
+        int to = xyTo1D(toRow, n) + 1;  // exclusive
+
+        int count = 0;
+        if (status != null) {
+            for (int i = from; i < to; i++) {
+                count += status[i] & OPEN;
+            }
+            return count;
+        }
+
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (-to & 63);
+        if (firstWord == lastWord) {
+            return Long.bitCount(openBits[firstWord] & firstMask & lastMask);
+        }
+        count += Long.bitCount(openBits[firstWord] & firstMask);
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            count += Long.bitCount(openBits[w]);
+        }
+        count += Long.bitCount(openBits[lastWord] & lastMask);
+        return count;
+    }
+
     // does the system percolate?
     public boolean percolates() {
-        return uf.find(virtualTop) == uf.find(virtualBottom);
+        return percolates;
+    }
+
+    // returns the number of open sites at the moment the system first
+    // percolated, or -1 if it does not percolate yet; after openAll() this
+    // is the open count at the end of that batch
+    public int percolationThreshold() {
+        return percolatedAt;
+    }
+
+    // registers a callback that receives percolationThreshold() once, when
+    // the system first percolates; it fires immediately if it already has
+    public void onPercolation(IntConsumer listener) {
+        this.percolationListener = listener;
+        if (percolates && listener != null) {
+            listener.accept(percolatedAt);
+        }
+    }
+
+    /**
+     * Returns the length of the shortest prefix of sites (0-indexed row-major
+     * indices, opened in order) after which an n-by-n grid percolates, or -1
+     * if opening all of them does not percolate it. The sites are replayed
+     * once and the first percolation event gives the answer.
+     */
+    public static int threshold(int n, int[] sites) {
+        if (sites == null) {
+            throw new IllegalArgumentException("Sites cannot be null");
+        }
+
+        Percolation perc = new Percolation(n);
+        for (int i = 0; i < sites.length; i++) {
+            int site = sites[i];
+            if (site < 0 || site >= perc.parent.length) {
+                throw new IllegalArgumentException("Index out of bounds");
+            }
+            perc.open(site / n + 1, site % n + 1);
+            if (perc.percolates()) {
+                return i + 1;
+            }
+        }
+        return -1;
     }
 
     public static void main(String[] args) {
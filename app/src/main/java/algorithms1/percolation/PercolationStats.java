@@ -1,57 +1,260 @@
 package algorithms1.percolation; // Remove this line before submission
 
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
-import edu.princeton.cs.algs4.StdStats;
 
 public class PercolationStats {
     private static final double CONFIDENCE = 1.96;
-    private final double[] value;
+    // Trials per unit of work; blocks are merged in order, so results do not
+    // depend on how they were scheduled
+    private static final int BLOCK_SIZE = 16;
+    private final int trials;
+    private final double mean;
+    private final double stddev;
+
+    // How a trial picks the next site to open
+    public enum Sampling {
+        // draw (row, col) uniformly, redrawing whenever the site is already open
+        REJECTION,
+        // walk a random permutation of the sites, so every draw opens a new site
+        SHUFFLE
+    }
+
+    // Welford running mean and sum of squared deviations
+    private static final class Accumulator {
+        private int count;
+        private double mean;
+        private double m2;
+
+        private void add(double x) {
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+
+        // Chan et al. pairwise combination of two partial accumulators
+        private void merge(Accumulator other) {
+            if (other.count == 0) {
+                return;
+            }
+            int total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+            count = total;
+        }
+
+        private double stddev() {
+            return Math.sqrt(m2 / (count - 1));
+        }
+
+        private double halfWidth() {
+            return CONFIDENCE * stddev() / Math.sqrt(count);
+        }
+    }
 
+    // Seeds the trials from StdRandom, so StdRandom.setSeed() still makes a run reproducible
     public PercolationStats(int n, int trials) {
-        int i, row, col;
-        double openSites;
-        int totalSites = n * n;
+        this(n, trials, StdRandom.uniformLong(Long.MAX_VALUE), 1);
+    }
+
+    public PercolationStats(int n, int trials, long seed, int threads) {
+        this(n, trials, seed, threads, Sampling.REJECTION);
+    }
+
+    public PercolationStats(int n, int trials, long seed, int threads, Sampling sampling) {
+        this(n, trials, seed, threads, sampling, 0);
+    }
 
+    /**
+     * Runs up to {@code trials} trials on up to {@code threads} threads.
+     * Trials are grouped into blocks that each draw from their own
+     * SplittableRandom stream, split from {@code seed} in block order, and
+     * partial statistics are merged in that same order, so the results only
+     * depend on the seed and not on the thread count.
+     * With a positive {@code epsilon} the run stops after the first block at
+     * which the 95% confidence interval half-width drops below epsilon.
+     */
+    public PercolationStats(int n, int trials, long seed, int threads, Sampling sampling, double epsilon) {
         if (n <= 0 || trials <= 0)
             throw new IllegalArgumentException("Value of N or T is less than or equal to 0");
-        
-        value = new double[trials];
-        for (i = 0; i < trials; i++) {
-            Percolation perc = new Percolation(n);
+        if (threads <= 0)
+            throw new IllegalArgumentException("Number of threads must be greater than 0");
+        if (sampling == null)
+            throw new IllegalArgumentException("Sampling cannot be null");
+        if (!(epsilon >= 0))
+            throw new IllegalArgumentException("Epsilon must not be negative");
+
+        SplittableRandom root = new SplittableRandom(seed);
+        int blocks = (trials + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        Accumulator total = new Accumulator();
+
+        if (threads == 1) {
+            for (int b = 0; b < blocks; b++) {
+                total.merge(block(n, blockSize(b, trials), root.split(), sampling, null));
+                if (done(total, epsilon)) {
+                    break;
+                }
+            }
+        } else {
+            // Keep a bounded window of blocks in flight and merge them in
+            // submission order; after an early stop, queued blocks are
+            // cancelled and running ones give up at their next trial
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ArrayDeque<ForkJoinTask<Accumulator>> window = new ArrayDeque<>();
+            AtomicBoolean stop = new AtomicBoolean();
+            try {
+                int next = 0;
+                while (next < blocks || !window.isEmpty()) {
+                    while (next < blocks && window.size() < 2 * threads) {
+                        int size = blockSize(next, trials);
+                        SplittableRandom random = root.split();
+                        window.add(pool.submit(() -> block(n, size, random, sampling, stop)));
+                        next++;
+                    }
+                    total.merge(window.poll().join());
+                    if (done(total, epsilon)) {
+                        break;
+                    }
+                }
+            } finally {
+                stop.set(true);
+                for (ForkJoinTask<Accumulator> task : window) {
+                    task.cancel(false);
+                }
+                pool.shutdown();
+                awaitTermination(pool);
+            }
+        }
+
+        this.trials = total.count;
+        this.mean = total.mean;
+        this.stddev = total.stddev();
+    }
+
+    // Number of trials in block b of a run of the given length
+    private static int blockSize(int b, int trials) {
+        return Math.min(BLOCK_SIZE, trials - b * BLOCK_SIZE);
+    }
+
+    private static boolean done(Accumulator total, double epsilon) {
+        return epsilon > 0 && total.count > 1 && total.halfWidth() < epsilon;
+    }
+
+    // Waits for the pool to finish, so no trials outlive the constructor
+    private static void awaitTermination(ForkJoinPool pool) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Runs a block of trials; a set stop flag (null for none) abandons the
+    // block between trials, as its result will not be used
+    private static Accumulator block(int n, int size, SplittableRandom random, Sampling sampling,
+                                     AtomicBoolean stop) {
+        Accumulator acc = new Accumulator();
+        for (int i = 0; i < size; i++) {
+            if (stop != null && stop.get()) {
+                break;
+            }
+            acc.add(trial(n, random.split(), sampling));
+        }
+        return acc;
+    }
+
+    // Opens random sites until the grid percolates and returns the open fraction
+    static double trial(int n, SplittableRandom random, Sampling sampling) {
+        Percolation perc = new Percolation(n);
+        if (sampling == Sampling.SHUFFLE) {
+            openShuffled(perc, n, random);
+        } else {
             while (!perc.percolates()) {
-                row = StdRandom.uniformInt(1, n + 1);
-                col = StdRandom.uniformInt(1, n + 1);
+                int row = random.nextInt(1, n + 1);
+                int col = random.nextInt(1, n + 1);
                 perc.open(row, col);
             }
-            openSites = perc.numberOfOpenSites();
-            value[i] = openSites / totalSites;
+        }
+        return (double) perc.percolationThreshold() / ((double) n * n);
+    }
+
+    // Opens sites in the order of a partial Fisher-Yates shuffle of all site
+    // indices, stopping as soon as the grid percolates. Slots of sites[] are
+    // filled lazily: 0 stands for the untouched identity value and anything
+    // else for site + 1, so only the prefix actually drawn is ever written.
+    private static void openShuffled(Percolation perc, int n, SplittableRandom random) {
+        int total = n * n;
+        int[] sites = new int[total];
+        for (int k = 0; !perc.percolates(); k++) {
+            int j = k + random.nextInt(total - k);
+            int site = sites[j] == 0 ? j : sites[j] - 1;
+            sites[j] = sites[k] == 0 ? k + 1 : sites[k];
+            perc.open(site / n + 1, site % n + 1);
         }
     }
 
     public double mean() {
-        return StdStats.mean(value);
+        return mean;
     }
 
     public double stddev() {
-        return StdStats.stddev(value);
+        return stddev;
     }
 
     public double confidenceLo() {
-        return (this.mean() - ((CONFIDENCE * stddev()) / Math.sqrt(value.length)));
+        return (mean - ((CONFIDENCE * stddev) / Math.sqrt(trials)));
     }
 
     public double confidenceHi() {
-        return (this.mean() + ((CONFIDENCE * stddev()) / Math.sqrt(value.length)));
+        return (mean + ((CONFIDENCE * stddev) / Math.sqrt(trials)));
+    }
+
+    // number of trials actually run, which is below the requested count after an early stop
+    public int trials() {
+        return trials;
     }
 
+    // Usage: PercolationStats n trials [seed [threads [rejection|shuffle [epsilon]]]]
     public static void main(String[] args) {
         int n = Integer.parseInt(args[0]);
         int t = Integer.parseInt(args[1]);
-        PercolationStats perc = new PercolationStats(n, t);
-        
+        PercolationStats perc;
+        if (args.length > 2) {
+            long seed = Long.parseLong(args[2]);
+            int threads = args.length > 3
+                    ? Integer.parseInt(args[3])
+                    : Runtime.getRuntime().availableProcessors();
+            Sampling sampling = args.length > 4
+                    ? Sampling.valueOf(args[4].toUpperCase())
+                    : Sampling.REJECTION;
+            double epsilon = args.length > 5 ? Double.parseDouble(args[5]) : 0;
+            perc = new PercolationStats(n, t, seed, threads, sampling, epsilon);
+        } else {
+            perc = new PercolationStats(n, t);
+        }
+
         StdOut.printf("mean                    = %f\n", perc.mean());
         StdOut.printf("stddev                  = %f\n", perc.stddev());
         StdOut.printf("95%% confidence interval = [%f, %f]\n", perc.confidenceLo(), perc.confidenceHi());
+        if (perc.trials() < t) {
+            StdOut.printf("stopped early after %d trials\n", perc.trials());
+        }
     }
-}
\ No newline at end of file
+}
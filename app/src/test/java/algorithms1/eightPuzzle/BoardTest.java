@@ -0,0 +1,169 @@
+package algorithms1.eightPuzzle;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardTest {
+    private static final int SAMPLES = 200;
+
+    private static final class Node {
+        private final Board board;
+        private final int priority;
+
+        private Node(Board board, int moves) {
+            this.board = board;
+            this.priority = moves + board.manhattan();
+        }
+    }
+
+    private static final class Search {
+        private final PriorityQueue<Node> open = new PriorityQueue<>(Comparator.comparingInt(node -> node.priority));
+        private final Set<Board> closed = new HashSet<>();
+
+        private Search(Board initial) {
+            open.add(new Node(initial, 0));
+        }
+
+        // Expands one node and returns true once the goal is dequeued
+        private boolean step() {
+            Node node = open.poll();
+            if (node.board.isGoal()) {
+                return true;
+            }
+            if (closed.add(node.board)) {
+                int moves = node.priority - node.board.manhattan() + 1;
+                for (Board neighbor : node.board.neighbors()) {
+                    if (!closed.contains(neighbor)) {
+                        open.add(new Node(neighbor, moves));
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    // The original solvability test: search the board and its twin in
+    // lockstep, exactly one of them reaches the goal
+    private static boolean twinSearch(Board board) {
+        Search search = new Search(board);
+        Search twin = new Search(board.twin());
+        while (true) {
+            if (search.step()) {
+                return true;
+            }
+            if (twin.step()) {
+                return false;
+            }
+        }
+    }
+
+    private static Board board(int[] tiles, int n) {
+        int[][] grid = new int[n][n];
+        for (int i = 0; i < tiles.length; i++) {
+            grid[i / n][i % n] = tiles[i];
+        }
+        return new Board(grid);
+    }
+
+    private static int[] randomPermutation(int size, Random random) {
+        int[] tiles = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = random.nextInt(i + 1);
+            tiles[i] = tiles[j];
+            tiles[j] = i;
+        }
+        return tiles;
+    }
+
+    // Goal board scrambled by random moves of the empty tile
+    private static Board scramble(int n, int moves, Random random) {
+        Board board = board(goal(n), n);
+        for (int i = 0; i < moves; i++) {
+            int k = 0;
+            Board pick = null;
+            for (Board neighbor : board.neighbors()) {
+                if (random.nextInt(++k) == 0) {
+                    pick = neighbor;
+                }
+            }
+            board = pick;
+        }
+        return board;
+    }
+
+    private static int[] goal(int n) {
+        int[] tiles = new int[n * n];
+        for (int i = 0; i < tiles.length - 1; i++) {
+            tiles[i] = i + 1;
+        }
+        return tiles;
+    }
+
+    private static void permute(int[] a, int k, Set<Board> seen, int n) {
+        if (k == a.length) {
+            seen.add(board(a, n));
+            return;
+        }
+        for (int i = k; i < a.length; i++) {
+            int t = a[k]; a[k] = a[i]; a[i] = t;
+            permute(a, k + 1, seen, n);
+            t = a[k]; a[k] = a[i]; a[i] = t;
+        }
+    }
+
+    @Test void allTwoByTwoBoardsMatchTwinSearch() {
+        Set<Board> boards = new HashSet<>();
+        permute(new int[] {0, 1, 2, 3}, 0, boards, 2);
+        assertEquals(24, boards.size());
+
+        int solvable = 0;
+        for (Board board : boards) {
+            assertEquals(twinSearch(board), board.isSolvable(), board.toString());
+            if (board.isSolvable()) {
+                solvable++;
+            }
+        }
+        assertEquals(12, solvable);
+    }
+
+    @Test void randomThreeByThreeBoardsMatchTwinSearch() {
+        Random random = new Random(14);
+        for (int i = 0; i < SAMPLES; i++) {
+            Board board = board(randomPermutation(9, random), 3);
+            assertEquals(twinSearch(board), board.isSolvable(), board.toString());
+        }
+    }
+
+    // Random 4-by-4 permutations lie too deep for the twin search, so it is
+    // run on shallow scrambles and their twins, and random permutations only
+    // check that exactly one of a board and its twin counts as solvable
+    @Test void fourByFourBoardsMatchTwinSearch() {
+        Random random = new Random(16);
+        for (int i = 0; i < SAMPLES; i++) {
+            Board board = scramble(4, random.nextInt(30), random);
+            Board candidate = random.nextBoolean() ? board : board.twin();
+            assertEquals(twinSearch(candidate), candidate.isSolvable(), candidate.toString());
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            Board board = board(randomPermutation(16, random), 4);
+            assertNotEquals(board.isSolvable(), board.twin().isSolvable(), board.toString());
+        }
+    }
+
+    @Test void solverStopsOnUnsolvableBoards() {
+        Random random = new Random(3);
+        for (Solver.Strategy strategy : Solver.Strategy.values()) {
+            Board board = scramble(3, 40, random).twin();
+            Solver solver = new Solver(board, strategy);
+            assertFalse(solver.isSolvable());
+            assertEquals(-1, solver.moves());
+            assertNull(solver.solution());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package algorithms1.eightPuzzle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternDatabaseTest {
+    private static final int SAMPLES = 500;
+
+    // 5-5-5 partition, small enough to build in a test
+    private static final int[][] GROUPS = {
+        {1, 2, 3, 4, 5},
+        {6, 7, 8, 9, 10},
+        {11, 12, 13, 14, 15}
+    };
+
+    // Fixed 50-move instance
+    private static final int[][] HARD = {
+        {1, 11, 2, 10},
+        {13, 7, 15, 6},
+        {12, 8, 4, 9},
+        {14, 0, 3, 5}
+    };
+
+    private static final PatternDatabase PATTERNS = PatternDatabase.build(4, GROUPS);
+
+    private static Board randomBoard(Random random) {
+        int[] tiles = new int[16];
+        for (int i = 0; i < tiles.length; i++) {
+            int j = random.nextInt(i + 1);
+            tiles[i] = tiles[j];
+            tiles[j] = i;
+        }
+        int[][] grid = new int[4][4];
+        for (int i = 0; i < tiles.length; i++) {
+            grid[i / 4][i % 4] = tiles[i];
+        }
+        return new Board(grid);
+    }
+
+    @Test void estimatesDominateManhattan() {
+        Random random = new Random(16);
+        int[] tiles = new int[16];
+        for (int i = 0; i < SAMPLES; i++) {
+            Board board = randomBoard(random);
+            board.copyTiles(tiles);
+            assertTrue(PATTERNS.estimate(tiles, 4) >= board.manhattan(), board.toString());
+        }
+    }
+
+    @Test void expandsFewerNodesThanLinearConflict() {
+        Board board = new Board(HARD);
+        Solver manhattan = new Solver(board, Solver.Strategy.IDA_STAR);
+        Solver conflicts = new Solver(board, Solver.Strategy.IDA_STAR, new LinearConflict());
+        Solver patterns = new Solver(board, Solver.Strategy.IDA_STAR, PATTERNS);
+
+        assertEquals(50, manhattan.moves());
+        assertEquals(50, conflicts.moves());
+        assertEquals(50, patterns.moves());
+        assertTrue(conflicts.nodesExpanded() < manhattan.nodesExpanded());
+        assertTrue(patterns.nodesExpanded() < conflicts.nodesExpanded());
+    }
+
+    // The estimates are inconsistent, so A* has to reopen boards to stay
+    // optimal
+    @Test void everyStrategyStaysOptimal() {
+        Board board = new Board(HARD);
+        for (Solver.Strategy strategy : Solver.Strategy.values()) {
+            assertEquals(50, new Solver(board, strategy, PATTERNS, 2).moves(), strategy.toString());
+        }
+    }
+
+    @Test void savedDatabaseGivesSameEstimates() throws IOException {
+        // The loaded tables stay mapped, so the file goes at exit
+        Path file = Files.createTempFile("patterns", ".pdb");
+        file.toFile().deleteOnExit();
+        PATTERNS.save(file);
+        PatternDatabase loaded = PatternDatabase.load(file);
+
+        Random random = new Random(4);
+        int[] tiles = new int[16];
+        for (int i = 0; i < SAMPLES; i++) {
+            randomBoard(random).copyTiles(tiles);
+            assertEquals(PATTERNS.estimate(tiles, 4), loaded.estimate(tiles, 4));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package algorithms1.eightPuzzle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverBatchTest {
+    private static final int PUZZLES = 40;
+
+    // Goal board scrambled by random moves of the empty tile
+    private static Board scramble(int moves, Random random) {
+        Board board = new Board(new int[][] {{1, 2, 3}, {4, 5, 6}, {7, 8, 0}});
+        for (int i = 0; i < moves; i++) {
+            int k = 0;
+            Board pick = null;
+            for (Board neighbor : board.neighbors()) {
+                if (random.nextInt(++k) == 0) {
+                    pick = neighbor;
+                }
+            }
+            board = pick;
+        }
+        return board;
+    }
+
+    private static List<SolverBatch.Result> run(String input, int threads) {
+        List<SolverBatch.Result> results = new ArrayList<>();
+        new SolverBatch(threads, Solver.Strategy.A_STAR, null).run(input, results::add);
+        return results;
+    }
+
+    // Puzzles back to back in one file, every fifth one unsolvable, come
+    // back in input order with the moves a single Solver finds
+    @Test void concatenatedInputKeepsInputOrder() throws IOException {
+        Random random = new Random(18);
+        List<Board> boards = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < PUZZLES; i++) {
+            Board board = scramble(random.nextInt(60), random);
+            if (i % 5 == 0) {
+                board = board.twin();
+            }
+            boards.add(board);
+            text.append(board).append('\n');
+        }
+        Path file = Files.createTempFile("puzzles", ".txt");
+        try {
+            Files.writeString(file, text);
+            String input = file.toString();
+            List<SolverBatch.Result> serial = run(input, 1);
+            List<SolverBatch.Result> parallel = run(input, 4);
+
+            assertEquals(PUZZLES, serial.size());
+            assertEquals(PUZZLES, parallel.size());
+            for (int i = 0; i < PUZZLES; i++) {
+                int expected = new Solver(boards.get(i)).moves();
+                assertEquals(input + ":" + (i + 1), serial.get(i).name());
+                assertEquals(input + ":" + (i + 1), parallel.get(i).name());
+                assertEquals(expected, serial.get(i).moves());
+                assertEquals(expected, parallel.get(i).moves());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
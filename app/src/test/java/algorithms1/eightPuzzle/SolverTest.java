@@ -0,0 +1,68 @@
+package algorithms1.eightPuzzle;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+    private static final int[] THREADS = {1, 2, 4};
+
+    // Fixed scrambles of the goal
+    private static final int[][][] THREE_BY_THREE = {
+        {{4, 6, 3}, {8, 0, 2}, {5, 7, 1}},
+        {{3, 6, 2}, {8, 5, 1}, {0, 7, 4}},
+        {{7, 6, 1}, {2, 0, 8}, {5, 3, 4}}
+    };
+
+    private static final int[][][] FOUR_BY_FOUR = {
+        {{13, 9, 1, 2}, {5, 6, 12, 8}, {10, 15, 7, 11}, {14, 4, 3, 0}},
+        {{8, 3, 13, 12}, {1, 0, 2, 11}, {5, 6, 4, 15}, {14, 10, 9, 7}},
+        {{12, 4, 0, 10}, {5, 1, 8, 6}, {3, 2, 15, 11}, {9, 13, 7, 14}}
+    };
+
+    // Checks that solution() walks from board to the goal in moves() moves
+    private static void assertValidSolution(Board board, Solver solver) {
+        Board previous = null;
+        int count = 0;
+        for (Board step : solver.solution()) {
+            if (previous == null) {
+                assertEquals(board, step);
+            } else {
+                boolean adjacent = false;
+                for (Board neighbor : previous.neighbors()) {
+                    adjacent |= neighbor.equals(step);
+                }
+                assertTrue(adjacent, step.toString());
+            }
+            previous = step;
+            count++;
+        }
+        assertTrue(previous.isGoal());
+        assertEquals(solver.moves() + 1, count);
+    }
+
+    private static void assertParallelMatchesAStar(int[][][] boards, Heuristic heuristic) {
+        for (int[][] tiles : boards) {
+            Board board = new Board(tiles);
+            int expected = new Solver(board, Solver.Strategy.A_STAR, heuristic).moves();
+            for (int threads : THREADS) {
+                Solver parallel = new Solver(board, Solver.Strategy.PARALLEL_A_STAR, heuristic, threads);
+                assertEquals(expected, parallel.moves(), threads + " threads\n" + board);
+                assertValidSolution(board, parallel);
+            }
+        }
+    }
+
+    @Test void parallelAStarMatchesAStarOnThreeByThree() {
+        assertParallelMatchesAStar(THREE_BY_THREE, null);
+    }
+
+    @Test void parallelAStarMatchesAStarOnFourByFour() {
+        assertParallelMatchesAStar(FOUR_BY_FOUR, new LinearConflict());
+    }
+
+    @Test void rejectsNonPositiveThreadCount() {
+        Board board = new Board(THREE_BY_THREE[0]);
+        assertThrows(IllegalArgumentException.class,
+                () -> new Solver(board, Solver.Strategy.PARALLEL_A_STAR, null, 0));
+    }
+}
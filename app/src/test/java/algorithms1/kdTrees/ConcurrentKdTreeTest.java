@@ -0,0 +1,116 @@
+package algorithms1.kdTrees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.princeton.cs.algs4.Point2D;
+import edu.princeton.cs.algs4.RectHV;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentKdTreeTest {
+    private static final int POINTS = 40_000;
+    private static final int GRID = 150;  // coarse grid, so many points repeat
+    private static final int WRITERS = 4;
+    private static final int READERS = 2;
+    private static final int ROUNDS = 5;
+    private static final int QUERIES = 1000;
+
+    private static Point2D[] randomPoints(Random random) {
+        Point2D[] points = new Point2D[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            points[i] = new Point2D(random.nextInt(GRID) / (double) GRID, random.nextInt(GRID) / (double) GRID);
+        }
+        return points;
+    }
+
+    // Every writer inserts all points from its own offset, so writers race
+    // to insert the same points while readers query the growing tree
+    private static ConcurrentKdTree insertConcurrently(Point2D[] points) throws Exception {
+        ConcurrentKdTree tree = new ConcurrentKdTree();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                int offset = w * (POINTS / WRITERS);
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < POINTS; i++) {
+                        tree.insert(points[(i + offset) % POINTS]);
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    Random random = new Random();
+                    while (writing.get()) {
+                        Point2D p = new Point2D(random.nextDouble(), random.nextDouble());
+                        // Read before the query, as a writer may insert in between
+                        boolean wasEmpty = tree.isEmpty();
+                        Point2D nearest = tree.nearest(p);
+                        assertTrue(nearest != null || wasEmpty);
+                        if (nearest != null) {
+                            assertTrue(tree.contains(nearest));
+                        }
+                        for (Point2D q : tree.range(new RectHV(0.1, 0.1, 0.2, 0.2))) {
+                            assertTrue(tree.contains(q));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdown();
+        }
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        return tree;
+    }
+
+    @Test void concurrentInsertsMatchBuiltTree() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            Random random = new Random(round);
+            Point2D[] points = randomPoints(random);
+            ConcurrentKdTree tree = insertConcurrently(points);
+            KdTree expected = KdTree.build(points);
+
+            assertEquals(expected.size(), tree.size());
+            for (Point2D p : points) {
+                assertTrue(tree.contains(p), p.toString());
+            }
+
+            Set<Point2D> all = new HashSet<>();
+            for (Point2D p : tree.range(new RectHV(0, 0, 1, 1))) {
+                assertTrue(all.add(p), "duplicate " + p);
+            }
+            assertEquals(new HashSet<>(Arrays.asList(points)), all);
+
+            for (int i = 0; i < QUERIES; i++) {
+                Point2D p = new Point2D(random.nextDouble(), random.nextDouble());
+                assertEquals(expected.nearest(p).distanceSquaredTo(p), tree.nearest(p).distanceSquaredTo(p), p.toString());
+                assertEquals(expected.contains(p), tree.contains(p), p.toString());
+            }
+        }
+    }
+}
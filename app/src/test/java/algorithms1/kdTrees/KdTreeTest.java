@@ -0,0 +1,226 @@
+package algorithms1.kdTrees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import edu.princeton.cs.algs4.Point2D;
+import edu.princeton.cs.algs4.RectHV;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KdTreeTest {
+    private static final int POINTS = 5000;
+    private static final int GRID = 40;      // coarse grid, so many points repeat
+    private static final int QUERIES = 1000; // several batch chunks
+    private static final int K = 7;
+
+    private static Point2D gridPoint(Random random) {
+        return new Point2D(random.nextInt(GRID) / (double) GRID, random.nextInt(GRID) / (double) GRID);
+    }
+
+    // Grid points plus a run sharing one x and a run sharing one y
+    private static Point2D[] randomPoints(Random random) {
+        Point2D[] points = new Point2D[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            if (i % 5 == 0) {
+                points[i] = new Point2D(0.5, random.nextInt(GRID) / (double) GRID);
+            } else if (i % 5 == 1) {
+                points[i] = new Point2D(random.nextInt(GRID) / (double) GRID, 0.25);
+            } else {
+                points[i] = gridPoint(random);
+            }
+        }
+        return points;
+    }
+
+    private static PointSET brute(Point2D[] points) {
+        PointSET set = new PointSET();
+        for (Point2D p : points) {
+            set.insert(p);
+        }
+        return set;
+    }
+
+    // Queries both on and between grid points
+    private static Point2D[] randomQueries(Random random) {
+        Point2D[] queries = new Point2D[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = i % 2 == 0 ? gridPoint(random) : new Point2D(random.nextDouble(), random.nextDouble());
+        }
+        return queries;
+    }
+
+    private static RectHV[] randomRects(Random random) {
+        RectHV[] rects = new RectHV[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            double x = random.nextInt(GRID) / (double) GRID;
+            double y = random.nextInt(GRID) / (double) GRID;
+            rects[i] = new RectHV(x, y, Math.min(1, x + random.nextDouble() / 4), Math.min(1, y + random.nextDouble() / 4));
+        }
+        return rects;
+    }
+
+    private static Set<Point2D> toSet(Iterable<Point2D> points) {
+        Set<Point2D> set = new HashSet<>();
+        for (Point2D p : points) {
+            assertTrue(set.add(p), "duplicate " + p);
+        }
+        return set;
+    }
+
+    private static void assertSameRange(Iterable<Point2D> expected, Iterable<Point2D> actual, RectHV rect) {
+        assertEquals(toSet(expected), toSet(actual), rect.toString());
+    }
+
+    // Nearest points may tie, so compare distances
+    private static void assertSameNearest(Point2D expected, Point2D actual, Point2D query) {
+        assertEquals(expected.distanceSquaredTo(query), actual.distanceSquaredTo(query), query.toString());
+    }
+
+    private static void assertMatchesBrute(KdTree tree, PointSET brute, Point2D[] points, Random random) {
+        assertEquals(brute.size(), tree.size());
+        for (Point2D p : points) {
+            assertTrue(tree.contains(p), p.toString());
+        }
+        for (Point2D q : randomQueries(random)) {
+            assertEquals(brute.contains(q), tree.contains(q), q.toString());
+            assertSameNearest(brute.nearest(q), tree.nearest(q), q);
+        }
+        for (RectHV rect : randomRects(random)) {
+            assertSameRange(brute.range(rect), tree.range(rect), rect);
+        }
+    }
+
+    @Test void buildMatchesPointSet() {
+        Random random = new Random(21);
+        Point2D[] points = randomPoints(random);
+        PointSET brute = brute(points);
+        for (int threads : new int[] {1, 3}) {
+            assertMatchesBrute(KdTree.build(points, threads), brute, points, random);
+        }
+    }
+
+    @Test void insertMatchesPointSet() {
+        Random random = new Random(22);
+        Point2D[] points = randomPoints(random);
+        KdTree tree = new KdTree();
+        for (Point2D p : points) {
+            tree.insert(p);
+        }
+        assertMatchesBrute(tree, brute(points), points, random);
+    }
+
+    // Sorted and all-equal inputs are the classic bad cases for a pivot rule
+    @Test void buildHandlesSortedAndEqualPoints() {
+        Point2D[] sorted = new Point2D[POINTS];
+        Point2D[] equal = new Point2D[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            sorted[i] = new Point2D(i / (double) POINTS, i / (double) POINTS);
+            equal[i] = new Point2D(0.5, 0.5);
+        }
+        Random random = new Random(21);
+        assertMatchesBrute(KdTree.build(sorted), brute(sorted), sorted, random);
+        assertMatchesBrute(KdTree.build(equal), brute(equal), equal, random);
+    }
+
+    @Test void freezeMatchesPointSet() {
+        Random random = new Random(23);
+        Point2D[] points = randomPoints(random);
+        PointSET brute = brute(points);
+        FrozenKdTree frozen = KdTree.build(points).freeze();
+
+        assertEquals(brute.size(), frozen.size());
+        for (Point2D p : points) {
+            assertTrue(frozen.contains(p), p.toString());
+        }
+        for (Point2D q : randomQueries(random)) {
+            assertEquals(brute.contains(q), frozen.contains(q), q.toString());
+            assertSameNearest(brute.nearest(q), frozen.nearest(q), q);
+        }
+        for (RectHV rect : randomRects(random)) {
+            assertSameRange(brute.range(rect), frozen.range(rect), rect);
+        }
+    }
+
+    @Test void nearestKMatchesBruteForce() {
+        Random random = new Random(24);
+        Point2D[] points = randomPoints(random);
+        KdTree tree = KdTree.build(points);
+        Point2D[] distinct = new HashSet<>(Arrays.asList(points)).toArray(new Point2D[0]);
+
+        for (Point2D q : randomQueries(random)) {
+            double[] expected = new double[distinct.length];
+            for (int i = 0; i < distinct.length; i++) {
+                expected[i] = distinct[i].distanceSquaredTo(q);
+            }
+            Arrays.sort(expected);
+
+            List<Point2D> nearest = new ArrayList<>();
+            for (Point2D p : tree.nearest(q, K)) {
+                nearest.add(p);
+            }
+            assertEquals(K, nearest.size());
+            assertEquals(K, toSet(nearest).size());
+            for (int i = 0; i < K; i++) {
+                assertTrue(tree.contains(nearest.get(i)));
+                assertEquals(expected[i], nearest.get(i).distanceSquaredTo(q), q.toString());
+            }
+        }
+        assertEquals(distinct.length, toSet(tree.nearest(new Point2D(0, 0), POINTS)).size());
+    }
+
+    @Test void withinRadiusMatchesBruteForce() {
+        Random random = new Random(25);
+        Point2D[] points = randomPoints(random);
+        KdTree tree = KdTree.build(points);
+
+        for (Point2D q : randomQueries(random)) {
+            // Multiples of the grid step, so points fall on the circle
+            double r = random.nextInt(4) / (double) GRID;
+            Set<Point2D> expected = new HashSet<>();
+            for (Point2D p : points) {
+                if (p.distanceSquaredTo(q) <= r * r) {
+                    expected.add(p);
+                }
+            }
+            assertEquals(expected, toSet(tree.withinRadius(q, r)), q + " " + r);
+        }
+    }
+
+    // More queries than one batch chunk, on the common pool and on a pool
+    // of its own, in input order
+    @Test void batchQueriesMatchSingleQueries() {
+        Random random = new Random(26);
+        Point2D[] points = randomPoints(random);
+        KdTree tree = KdTree.build(points);
+        FrozenKdTree frozen = tree.freeze();
+        Point2D[] queries = randomQueries(random);
+        RectHV[] rects = randomRects(random);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            List<Point2D[]> nearest = List.of(tree.nearestAll(queries), frozen.nearestAll(queries, pool));
+            for (Point2D[] answers : nearest) {
+                assertEquals(QUERIES, answers.length);
+                for (int i = 0; i < QUERIES; i++) {
+                    assertSameNearest(tree.nearest(queries[i]), answers[i], queries[i]);
+                }
+            }
+            List<List<Iterable<Point2D>>> ranges = List.of(tree.rangeAll(rects), frozen.rangeAll(rects, pool));
+            for (List<Iterable<Point2D>> answers : ranges) {
+                assertEquals(QUERIES, answers.size());
+                for (int i = 0; i < QUERIES; i++) {
+                    assertSameRange(tree.range(rects[i]), answers.get(i), rects[i]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package algorithms1.percolation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PercolationStatsTest {
+    private static final int N = 16;
+    private static final int TRIALS = 1000;
+
+    // Kolmogorov-Smirnov critical coefficient for alpha = 0.001
+    private static final double KS_ALPHA_001 = 1.949;
+
+    private static double[] sample(PercolationStats.Sampling sampling, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] values = new double[TRIALS];
+        for (int i = 0; i < TRIALS; i++) {
+            values[i] = PercolationStats.trial(N, random.split(), sampling);
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    // Largest gap between the empirical CDFs of two sorted samples
+    private static double ksStatistic(double[] a, double[] b) {
+        int i = 0;
+        int j = 0;
+        double d = 0;
+        while (i < a.length && j < b.length) {
+            double x = Math.min(a[i], b[j]);
+            while (i < a.length && a[i] == x) {
+                i++;
+            }
+            while (j < b.length && b[j] == x) {
+                j++;
+            }
+            d = Math.max(d, Math.abs((double) i / a.length - (double) j / b.length));
+        }
+        return d;
+    }
+
+    @Test void shuffleMatchesRejectionDistribution() {
+        double[] rejection = sample(PercolationStats.Sampling.REJECTION, 1);
+        double[] shuffle = sample(PercolationStats.Sampling.SHUFFLE, 2);
+
+        double critical = KS_ALPHA_001 * Math.sqrt(2.0 / TRIALS);
+        double d = ksStatistic(rejection, shuffle);
+        assertTrue(d < critical, "KS statistic " + d + " exceeds " + critical);
+    }
+
+    @Test void resultsDoNotDependOnThreadCount() {
+        PercolationStats serial = new PercolationStats(N, 200, 7, 1, PercolationStats.Sampling.SHUFFLE);
+        PercolationStats parallel = new PercolationStats(N, 200, 7, 4, PercolationStats.Sampling.SHUFFLE);
+
+        assertEquals(serial.mean(), parallel.mean());
+        assertEquals(serial.stddev(), parallel.stddev());
+        assertEquals(serial.confidenceLo(), parallel.confidenceLo());
+        assertEquals(serial.confidenceHi(), parallel.confidenceHi());
+    }
+
+    // Blocks are merged in submission order, so an early stop happens after
+    // the same block whatever the thread count
+    @Test void earlyStopDoesNotDependOnThreadCount() {
+        int trials = 100_000;
+        double epsilon = 0.005;
+        PercolationStats serial = new PercolationStats(N, trials, 11, 1, PercolationStats.Sampling.SHUFFLE, epsilon);
+        PercolationStats parallel = new PercolationStats(N, trials, 11, 4, PercolationStats.Sampling.SHUFFLE, epsilon);
+
+        assertTrue(serial.trials() < trials, "the run should stop early");
+        assertTrue(serial.confidenceHi() - serial.mean() < epsilon);
+        assertEquals(serial.trials(), parallel.trials());
+        assertEquals(serial.mean(), parallel.mean());
+        assertEquals(serial.stddev(), parallel.stddev());
+    }
+}
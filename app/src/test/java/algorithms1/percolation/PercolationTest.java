@@ -0,0 +1,229 @@
+package algorithms1.percolation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PercolationTest {
+    private static final int N = 128;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int SAMPLES = 100;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Opens every site in row-major order and queries it, returning a value
+    // derived from the answers so the JIT cannot drop the calls
+    private static int exercise(Percolation perc) {
+        int hits = 0;
+        for (int row = 1; row <= N; row++) {
+            for (int col = 1; col <= N; col++) {
+                perc.open(row, col);
+                if (perc.isOpen(row, col)) {
+                    hits++;
+                }
+                if (perc.isFull(row, col)) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Test void hotPathDoesNotAllocate() {
+        assertTrue(THREADS.isThreadAllocatedMemorySupported(), "allocation tracking must be supported");
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += exercise(new Percolation(N));
+        }
+
+        Percolation perc = new Percolation(N);
+        long before = allocatedBytes();
+        sink += exercise(perc);
+        long after = allocatedBytes();
+
+        assertEquals(2 * N * N * (WARMUP_ROUNDS + 1), sink, "every site should be open and full");
+        assertEquals(0, after - before, "open/isOpen/isFull allocated on the heap");
+    }
+
+    @Test void fullSitesDoNotBackwash() {
+        Percolation perc = new Percolation(3);
+        perc.open(1, 1);
+        perc.open(2, 1);
+        perc.open(3, 1);
+        perc.open(3, 3);
+
+        assertTrue(perc.percolates());
+        assertTrue(perc.isFull(3, 1));
+        assertFalse(perc.isFull(3, 3), "bottom-row site reached only through the bottom must not be full");
+    }
+
+    private static int[] randomSites(int n, int count, Random random) {
+        int[] sites = new int[count];
+        for (int i = 0; i < count; i++) {
+            sites[i] = random.nextInt(n * n);
+        }
+        return sites;
+    }
+
+    private static int[] permutation(int size, Random random) {
+        int[] sites = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = random.nextInt(i + 1);
+            sites[i] = sites[j];
+            sites[j] = i;
+        }
+        return sites;
+    }
+
+    private static void assertSameGrid(Percolation expected, Percolation actual, int n) {
+        assertEquals(expected.numberOfOpenSites(), actual.numberOfOpenSites());
+        assertEquals(expected.percolates(), actual.percolates());
+        for (int row = 1; row <= n; row++) {
+            for (int col = 1; col <= n; col++) {
+                assertEquals(expected.isOpen(row, col), actual.isOpen(row, col));
+                assertEquals(expected.isFull(row, col), actual.isFull(row, col));
+            }
+        }
+    }
+
+    // Batches of random sites, many of them repeated, opened with both
+    // openAll() overloads and replayed one by one with open()
+    @Test void openAllMatchesOpenReplay() {
+        Random random = new Random(5);
+        for (Percolation.Storage storage : Percolation.Storage.values()) {
+            for (int t = 0; t < SAMPLES; t++) {
+                int n = 1 + random.nextInt(12);
+                Percolation replay = new Percolation(n, storage);
+                Percolation byCoordinates = new Percolation(n, storage);
+                Percolation byIndex = new Percolation(n, storage);
+                for (int batch = 0; batch < 4; batch++) {
+                    int[] sites = randomSites(n, random.nextInt(n * n), random);
+                    int[] rows = new int[sites.length];
+                    int[] cols = new int[sites.length];
+                    for (int i = 0; i < sites.length; i++) {
+                        rows[i] = sites[i] / n + 1;
+                        cols[i] = sites[i] % n + 1;
+                        replay.open(rows[i], cols[i]);
+                    }
+                    byCoordinates.openAll(rows, cols);
+                    byIndex.openAll(IntStream.of(sites));
+
+                    assertSameGrid(replay, byCoordinates, n);
+                    assertSameGrid(replay, byIndex, n);
+                }
+            }
+        }
+    }
+
+    @Test void openAllValidatesWholeBatchFirst() {
+        Percolation perc = new Percolation(4);
+        assertThrows(IllegalArgumentException.class,
+                () -> perc.openAll(new int[] {1, 2, 5, 3}, new int[] {1, 2, 1, 3}));
+        assertThrows(IllegalArgumentException.class,
+                () -> perc.openAll(new int[] {1, 2}, new int[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> perc.openAll(IntStream.of(0, 5, 16, 7)));
+        assertThrows(IllegalArgumentException.class, () -> perc.openAll(IntStream.of(3, -1)));
+        assertEquals(0, perc.numberOfOpenSites(), "no site may open when a batch fails validation");
+    }
+
+    // Row ranges of every length, with n chosen so that rows start and end
+    // at, just before and just after the 64-bit word boundaries
+    @Test void openSitesInRowsMatchAcrossStorages() {
+        Random random = new Random(8);
+        for (int n : new int[] {1, 7, 8, 9, 16, 31, 32, 33, 64, 65}) {
+            Percolation bytes = new Percolation(n, Percolation.Storage.BYTE_PER_SITE);
+            Percolation bits = new Percolation(n, Percolation.Storage.BIT_PACKED);
+            int[] sites = randomSites(n, n * n / 2, random);
+            bytes.openAll(IntStream.of(sites));
+            bits.openAll(IntStream.of(sites));
+            for (int from = 1; from <= n; from++) {
+                for (int to = from; to <= n; to++) {
+                    int expected = 0;
+                    for (int row = from; row <= to; row++) {
+                        for (int col = 1; col <= n; col++) {
+                            if (bytes.isOpen(row, col)) {
+                                expected++;
+                            }
+                        }
+                    }
+                    assertEquals(expected, bytes.numberOfOpenSites(from, to));
+                    assertEquals(expected, bits.numberOfOpenSites(from, to), "n = " + n + ", rows " + from + ".." + to);
+                }
+            }
+        }
+    }
+
+    @Test void thresholdMatchesOpenReplay() {
+        Random random = new Random(9);
+        for (int t = 0; t < SAMPLES; t++) {
+            int n = 1 + random.nextInt(20);
+            int[] sites = permutation(n * n, random);
+
+            Percolation perc = new Percolation(n);
+            int[] fired = new int[2];
+            perc.onPercolation(count -> {
+                fired[0]++;
+                fired[1] = count;
+            });
+            int expected = -1;
+            for (int i = 0; i < sites.length; i++) {
+                perc.open(sites[i] / n + 1, sites[i] % n + 1);
+                if (expected < 0 && perc.percolates()) {
+                    expected = i + 1;
+                }
+            }
+
+            assertEquals(expected, Percolation.threshold(n, sites));
+            assertEquals(expected, perc.percolationThreshold());
+            assertEquals(1, fired[0], "listener must fire exactly once");
+            assertEquals(expected, fired[1]);
+        }
+
+        // The top row alone never percolates a grid of two or more rows
+        assertEquals(-1, Percolation.threshold(3, new int[] {0, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> Percolation.threshold(3, new int[] {0, 9}));
+    }
+
+    @Test void listenerFiresAtOnceWhenAlreadyPercolated() {
+        Percolation perc = new Percolation(2);
+        perc.open(1, 1);
+        perc.open(2, 1);
+        int[] fired = new int[1];
+        perc.onPercolation(count -> fired[0] = count);
+        assertEquals(2, fired[0]);
+    }
+
+    @Test void mappedPercolationMatchesPercolation() {
+        Random random = new Random(7);
+        for (int t = 0; t < SAMPLES / 4; t++) {
+            int n = 1 + random.nextInt(20);
+            Percolation expected = new Percolation(n);
+            try (MappedPercolation mapped = new MappedPercolation(n)) {
+                for (int site : randomSites(n, 2 * n * n, random)) {
+                    int row = site / n + 1;
+                    int col = site % n + 1;
+                    expected.open(row, col);
+                    mapped.open(row, col);
+                    assertEquals(expected.percolates(), mapped.percolates());
+                    assertEquals(expected.numberOfOpenSites(), mapped.numberOfOpenSites());
+                }
+                for (int row = 1; row <= n; row++) {
+                    for (int col = 1; col <= n; col++) {
+                        assertEquals(expected.isOpen(row, col), mapped.isOpen(row, col));
+                        assertEquals(expected.isFull(row, col), mapped.isFull(row, col));
+                    }
+                }
+            }
+        }
+    }
+}